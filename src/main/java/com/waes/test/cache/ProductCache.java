@@ -0,0 +1,61 @@
+package com.waes.test.cache;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductsDTO;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Interface to define the contract of the operations made directly on the product cache, besides the ones handled by the cache annotations.
+ *
+ * @author jonathanadepaula
+ */
+public interface ProductCache {
+
+    /**
+     * Evicts the cached products of all the given ids at once.
+     *
+     * @param productIds
+     */
+    void evictAll(Collection<UUID> productIds);
+
+    /**
+     * Writes all the given products to the cache at once, replacing the cached ones only when they are on an earlier version.
+     *
+     * @param productDTOList
+     */
+    void putAll(Collection<ProductDTO> productDTOList);
+
+    /**
+     * Gets the cached products of all the given ids at once. Products not cached are left out.
+     *
+     * @param productIds
+     * @return {@link Map} of the cached products by id
+     */
+    Map<UUID, ProductDTO> getAll(Collection<UUID> productIds);
+
+    /**
+     * Writes all the given products, just read from the database, to the cache at once. Products already cached are kept, as they
+     * may have been written after the read.
+     *
+     * @param productDTOList
+     */
+    void fillAll(Collection<ProductDTO> productDTOList);
+
+    /**
+     * Gets the page of products cached under the current catalogue version, loading and caching it when it is not cached yet.
+     *
+     * @param pageKey key of the page within the catalogue version, made of everything the page depends on
+     * @param loader  loads the page when it is not cached
+     * @return {@link ProductsDTO}
+     */
+    ProductsDTO getPage(String pageKey, Supplier<ProductsDTO> loader);
+
+    /**
+     * Moves the catalogue to a new version, so the pages cached for the previous one are not served anymore and just expire.
+     */
+    void bumpCatalogueVersion();
+}
@@ -0,0 +1,50 @@
+package com.waes.test.cache;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Interface to define the contract of the filter of existing product ids, which keeps lookups of ids that do not exist away from
+ * the cache, and answers the ones recently confirmed missing without a database query.
+ *
+ * @author jonathanadepaula
+ */
+public interface ProductIdFilter {
+
+    /**
+     * Checks if a product with the given id may exist. When it returns false the product was not known to exist on this node, but it
+     * may have been created on another one since, so it must be confirmed on the primary database before answering it is missing.
+     *
+     * @param id
+     * @return boolean
+     */
+    boolean mightExist(UUID id);
+
+    /**
+     * Checks if the product with the given id was recently confirmed missing on the primary database.
+     *
+     * @param id
+     * @return boolean
+     */
+    boolean isMissing(UUID id);
+
+    /**
+     * Adds the given ids of created products to the filter.
+     *
+     * @param ids
+     */
+    void addAll(Collection<UUID> ids);
+
+    /**
+     * Records that the product with the given id was looked up and not found, so the next lookups do not query it again for a while.
+     * Only lookups on the primary database are recorded, a replica may not have caught up with the product yet.
+     *
+     * @param id
+     */
+    void markMissing(UUID id);
+
+    /**
+     * Rebuilds the filter from the ids of all products.
+     */
+    void rebuild();
+}
@@ -0,0 +1,132 @@
+package com.waes.test.cache.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.waes.test.cache.ProductIdFilter;
+import com.waes.test.model.ProductChangeDTO;
+import com.waes.test.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Component} class which keeps a Bloom filter of the existing product ids in memory, plus the ids recently found missing.
+ * Implements {@link ProductIdFilter} interface.
+ * Ids created on this node are added by the write paths, the ones created on other nodes are read from the change feed on each
+ * refresh, so until then their lookups are confirmed on the primary database. Deleted ids stay on the filter until it is rebuilt,
+ * and the lookups of them are answered by the missing ids instead. The filter is sized on each rebuild from the number of products.
+ *
+ * @author jonathanadepaula
+ */
+@Component
+@Slf4j
+public class BloomProductIdFilter implements ProductIdFilter {
+
+    private static final Funnel<UUID> UUID_FUNNEL = (uuid, into) -> into
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits());
+
+    // Below it the false positives are not worth the memory saved.
+    private static final long MIN_EXPECTED_INSERTIONS = 1000;
+
+    private final ProductRepository repository;
+    private final double growthFactor;
+    private final double falsePositiveProbability;
+    private final int refreshBatchSize;
+    private final Cache<UUID, Boolean> missingIds;
+    private final AtomicLong lastSequence = new AtomicLong();
+    // Null until the first build, meanwhile every id might exist.
+    private volatile BloomFilter<UUID> bloomFilter;
+
+    public BloomProductIdFilter(ProductRepository repository,
+                                @Value("${products.id.filter.growth.factor}") double growthFactor,
+                                @Value("${products.id.filter.false.positive.probability}") double falsePositiveProbability,
+                                @Value("${products.id.filter.refresh.batch.size}") int refreshBatchSize,
+                                @Value("${products.id.filter.missing.ttl}") long missingTtl,
+                                @Value("${products.id.filter.missing.max.size}") long missingMaxSize) {
+        this.repository = repository;
+        this.growthFactor = growthFactor;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.refreshBatchSize = refreshBatchSize;
+        this.missingIds = Caffeine.newBuilder()
+                .maximumSize(missingMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(missingTtl))
+                .build();
+    }
+
+    @Override
+    public boolean mightExist(UUID id) {
+        BloomFilter<UUID> currentBloomFilter = bloomFilter;
+        if (Objects.isNull(currentBloomFilter)) {
+            return true;
+        }
+        return currentBloomFilter.mightContain(id);
+    }
+
+    @Override
+    public boolean isMissing(UUID id) {
+        return Objects.nonNull(missingIds.getIfPresent(id));
+    }
+
+    @Override
+    public void addAll(Collection<UUID> ids) {
+        BloomFilter<UUID> currentBloomFilter = bloomFilter;
+        ids.forEach(id -> {
+            if (Objects.nonNull(currentBloomFilter)) {
+                currentBloomFilter.put(id);
+            }
+            missingIds.invalidate(id);
+        });
+    }
+
+    @Override
+    public void markMissing(UUID id) {
+        missingIds.put(id, Boolean.TRUE);
+    }
+
+    @Override
+    public void rebuild() {
+        // The sequence is read first, so the products created while the ids are read are picked up by the refresh.
+        long sequence = repository.findLastSequence();
+        // Sized with room for the products created until the next rebuild, past it the false positives grow.
+        long expectedInsertions = Math.max(MIN_EXPECTED_INSERTIONS, (long) (repository.count() * growthFactor));
+        BloomFilter<UUID> rebuiltBloomFilter = BloomFilter.create(UUID_FUNNEL, expectedInsertions, falsePositiveProbability);
+        repository.exportAllIds(rebuiltBloomFilter::put);
+        lastSequence.set(sequence);
+        bloomFilter = rebuiltBloomFilter;
+        missingIds.invalidateAll();
+        log.info("Rebuilt the product id filter with about {} ids.", rebuiltBloomFilter.approximateElementCount());
+        refresh();
+    }
+
+    /**
+     * Adds to the filter the products created since the last refresh, on any node, reading them from the change feed.
+     */
+    @Scheduled(fixedDelayString = "${products.id.filter.refresh.delay}")
+    public synchronized void refresh() {
+        if (Objects.isNull(bloomFilter)) {
+            return;
+        }
+        List<ProductChangeDTO> productChangeDTOList;
+        do {
+            productChangeDTOList = repository.findChanges(lastSequence.get(), refreshBatchSize);
+            productChangeDTOList.stream()
+                    .filter(productChangeDTO -> !Boolean.TRUE.equals(productChangeDTO.isDeleted()))
+                    .map(productChangeDTO -> UUID.fromString(productChangeDTO.getId()))
+                    .forEach(id -> addAll(List.of(id)));
+            if (!productChangeDTOList.isEmpty()) {
+                lastSequence.set(productChangeDTOList.get(productChangeDTOList.size() - 1).getSeq());
+            }
+        } while (productChangeDTOList.size() == refreshBatchSize);
+    }
+}
@@ -0,0 +1,44 @@
+package com.waes.test.cache.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MeterBinder} which reports the loads of a Caffeine {@link Cache} filled through {@code get(key, mappingFunction)}.
+ * {@link io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics} only reports them for loading caches.
+ *
+ * @author jonathanadepaula
+ */
+public class CaffeineCacheLoadMetrics implements MeterBinder {
+
+    private final Cache<?, ?> cache;
+    private final Iterable<Tag> tags;
+
+    public CaffeineCacheLoadMetrics(Cache<?, ?> cache, String cacheName, Iterable<Tag> tags) {
+        this.cache = cache;
+        this.tags = Tags.concat(tags, "cache", cacheName);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadSuccessCount())
+                .tags(tags).tag("result", "success")
+                .description("The number of times cache lookup methods have successfully loaded a new value")
+                .register(registry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadFailureCount())
+                .tags(tags).tag("result", "failure")
+                .description("The number of times cache lookup methods failed to load a new value")
+                .register(registry);
+        TimeGauge.builder("cache.load.duration", cache, TimeUnit.NANOSECONDS, c -> c.stats().totalLoadTime())
+                .tags(tags)
+                .description("The time the cache has spent loading new values")
+                .register(registry);
+    }
+}
@@ -0,0 +1,101 @@
+package com.waes.test.cache.impl;
+
+import com.waes.test.cache.ProductCache;
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductsDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@link Component} class to handle the product cache operations when the cache is local.
+ * Implements {@link ProductCache} interface.
+ *
+ * @author jonathanadepaula
+ */
+@Component
+@ConditionalOnProperty(value = "local.cache", havingValue = "true")
+public class LocalProductCache implements ProductCache {
+
+    private static final String PRODUCT_CACHE = "product";
+    private static final String PRODUCTS_CACHE = "productsCache";
+
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final AtomicLong catalogueVersion = new AtomicLong();
+
+    public LocalProductCache(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void evictAll(Collection<UUID> productIds) {
+        getCache(PRODUCT_CACHE).ifPresent(cache -> productIds.forEach(cache::evict));
+    }
+
+    /**
+     * Writes all the given products, each only when the cached one is on an earlier version, so writes of concurrent updates running
+     * out of order never leave the older version cached. Products without a version can not be compared, so they are evicted instead.
+     *
+     * @param productDTOList
+     */
+    @Override
+    public synchronized void putAll(Collection<ProductDTO> productDTOList) {
+        getCache(PRODUCT_CACHE).ifPresent(cache -> productDTOList.forEach(productDTO -> {
+            UUID productId = UUID.fromString(productDTO.getId());
+            if (Objects.isNull(productDTO.getVersion())) {
+                cache.evict(productId);
+                return;
+            }
+            ProductDTO cached = cache.get(productId, ProductDTO.class);
+            if (Objects.isNull(cached) || Objects.isNull(cached.getVersion()) || cached.getVersion() < productDTO.getVersion()) {
+                cache.put(productId, productDTO);
+            }
+        }));
+    }
+
+    @Override
+    public Map<UUID, ProductDTO> getAll(Collection<UUID> productIds) {
+        Map<UUID, ProductDTO> productDTOs = new HashMap<>();
+        getCache(PRODUCT_CACHE).ifPresent(cache -> productIds.forEach(productId -> {
+            ProductDTO productDTO = cache.get(productId, ProductDTO.class);
+            if (Objects.nonNull(productDTO)) {
+                productDTOs.put(productId, productDTO);
+            }
+        }));
+        return productDTOs;
+    }
+
+    @Override
+    public void fillAll(Collection<ProductDTO> productDTOList) {
+        getCache(PRODUCT_CACHE).ifPresent(cache -> productDTOList
+                .forEach(productDTO -> cache.putIfAbsent(UUID.fromString(productDTO.getId()), productDTO)));
+    }
+
+    @Override
+    public ProductsDTO getPage(String pageKey, Supplier<ProductsDTO> loader) {
+        return getCache(PRODUCTS_CACHE)
+                .map(cache -> cache.get(catalogueVersion.get() + ":" + pageKey, loader::get))
+                .orElseGet(loader);
+    }
+
+    @Override
+    public void bumpCatalogueVersion() {
+        catalogueVersion.incrementAndGet();
+    }
+
+    private Optional<Cache> getCache(String name) {
+        return Optional.ofNullable(cacheManager.getIfAvailable())
+                .map(manager -> manager.getCache(name));
+    }
+}
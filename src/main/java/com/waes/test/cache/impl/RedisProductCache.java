@@ -0,0 +1,197 @@
+package com.waes.test.cache.impl;
+
+import com.waes.test.cache.ProductCache;
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * {@link Component} class to handle the product cache operations when Redis is the cache provider.
+ * Implements {@link ProductCache} interface.
+ *
+ * @author jonathanadepaula
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "local.cache", havingValue = "false")
+public class RedisProductCache implements ProductCache {
+
+    private static final String PRODUCT_CACHE = "product";
+    private static final String PRODUCTS_CACHE = "productsCache";
+    private static final String CATALOGUE_VERSION = "catalogue-version";
+    // Writes the product unless the cached one is on the same or a later version. The version is the last field written by
+    // ProductCacheSerializer, as 8 big-endian bytes, when the product flags on the third byte have it.
+    private static final byte[] PUT_IF_NEWER = String.join("\n",
+            "local current = redis.call('GET', KEYS[1])",
+            "local function version(value)",
+            "    local result = 0",
+            "    for index = #value - 7, #value do result = result * 256 + string.byte(value, index) end",
+            "    return result",
+            "end",
+            "if current and string.byte(current, 1) == string.byte(ARGV[1], 1) and string.byte(current, 2) == 1",
+            "        and bit.band(string.byte(current, 3), 16) ~= 0 and version(current) >= version(ARGV[1]) then",
+            "    return 0",
+            "end",
+            "if tonumber(ARGV[2]) > 0 then",
+            "    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])",
+            "else",
+            "    redis.call('SET', KEYS[1], ARGV[1])",
+            "end",
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Serializable> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TwoLevelCacheManager twoLevelCacheManager;
+    private final RedisSerializer<Object> productCacheValueSerializer;
+    private final String keyPrefix;
+    private final String catalogueVersionKey;
+    private final Expiration expiration;
+
+    public RedisProductCache(RedisTemplate<String, Serializable> redisTemplate, StringRedisTemplate stringRedisTemplate,
+                             TwoLevelCacheManager twoLevelCacheManager, RedisSerializer<Object> productCacheValueSerializer,
+                             RedisCacheConfiguration redisCacheConfiguration) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.twoLevelCacheManager = twoLevelCacheManager;
+        this.productCacheValueSerializer = productCacheValueSerializer;
+        this.keyPrefix = redisCacheConfiguration.getKeyPrefixFor(PRODUCT_CACHE);
+        this.catalogueVersionKey = redisCacheConfiguration.getKeyPrefixFor(PRODUCTS_CACHE) + CATALOGUE_VERSION;
+        this.expiration = Expiration.from(redisCacheConfiguration.getTtl());
+    }
+
+    /**
+     * Evicts all the given products with a single DEL command, then from the local caches of every node.
+     *
+     * @param productIds
+     */
+    @Override
+    public void evictAll(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = productIds.stream().map(productId -> keyPrefix + productId).collect(Collectors.toList());
+        Long evicted = redisTemplate.delete(keys);
+        log.info("Evicted {} of {} products from the cache.", evicted, productIds.size());
+        twoLevelCacheManager.invalidate(PRODUCT_CACHE, productIds.stream().map(UUID::toString).collect(Collectors.toList()));
+    }
+
+    /**
+     * Writes all the given products with a pipelined script, encoded as the product cache does, then evicts their previous
+     * versions from the local caches of every node. Each product is only written when the cached one is on an earlier version, so
+     * writes of concurrent updates running out of order never leave the older version cached. Products without a version can not
+     * be compared, so they are evicted instead.
+     *
+     * @param productDTOList
+     */
+    @Override
+    public void putAll(Collection<ProductDTO> productDTOList) {
+        evictAll(productDTOList.stream()
+                .filter(productDTO -> Objects.isNull(productDTO.getVersion()))
+                .map(productDTO -> UUID.fromString(productDTO.getId()))
+                .collect(Collectors.toList()));
+        List<ProductDTO> versionedProductDTOList = productDTOList.stream()
+                .filter(productDTO -> Objects.nonNull(productDTO.getVersion()))
+                .collect(Collectors.toList());
+        if (versionedProductDTOList.isEmpty()) {
+            return;
+        }
+        byte[] ttl = String.valueOf(expiration.getExpirationTimeInMilliseconds()).getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            versionedProductDTOList.forEach(productDTO -> connection.eval(PUT_IF_NEWER, ReturnType.INTEGER, 1,
+                    key(productDTO.getId()), productCacheValueSerializer.serialize(productDTO), ttl));
+            return null;
+        });
+        log.info("Wrote {} products to the cache.", versionedProductDTOList.size());
+        twoLevelCacheManager.invalidate(PRODUCT_CACHE, versionedProductDTOList.stream().map(ProductDTO::getId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Gets all the given products with a single MGET command. Anything other than a product, like a cached null, counts as a miss.
+     *
+     * @param productIds
+     * @return {@link Map} of the cached products by id
+     */
+    @Override
+    public Map<UUID, ProductDTO> getAll(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<UUID> orderedIds = new ArrayList<>(productIds);
+        List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.mGet(orderedIds.stream().map(productId -> key(productId.toString())).toArray(byte[][]::new)));
+        Map<UUID, ProductDTO> productDTOs = new HashMap<>();
+        for (int i = 0; i < orderedIds.size() && Objects.nonNull(values); i++) {
+            Object value = productCacheValueSerializer.deserialize(values.get(i));
+            if (value instanceof ProductDTO) {
+                productDTOs.put(orderedIds.get(i), (ProductDTO) value);
+            }
+        }
+        log.info("Found {} of {} products on the cache.", productDTOs.size(), productIds.size());
+        return productDTOs;
+    }
+
+    /**
+     * Writes all the given products with pipelined SET NX commands, so entries written by a concurrent update are not overwritten.
+     * Nothing is evicted from the local caches, as none of the products were cached.
+     *
+     * @param productDTOList
+     */
+    @Override
+    public void fillAll(Collection<ProductDTO> productDTOList) {
+        if (productDTOList.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            productDTOList.forEach(productDTO -> connection.set(key(productDTO.getId()),
+                    productCacheValueSerializer.serialize(productDTO), expiration, RedisStringCommands.SetOption.SET_IF_ABSENT));
+            return null;
+        });
+    }
+
+    /**
+     * Gets the page from the cache under the catalogue version shared by all the nodes, so a single round trip for the version
+     * replaces the database query and pages already on the local cache are not read from Redis again.
+     *
+     * @param pageKey
+     * @param loader
+     * @return {@link ProductsDTO}
+     */
+    @Override
+    public ProductsDTO getPage(String pageKey, Supplier<ProductsDTO> loader) {
+        String catalogueVersion = Optional.ofNullable(stringRedisTemplate.opsForValue().get(catalogueVersionKey)).orElse("0");
+        return twoLevelCacheManager.getCache(PRODUCTS_CACHE).get(catalogueVersion + ":" + pageKey, loader::get);
+    }
+
+    @Override
+    public void bumpCatalogueVersion() {
+        stringRedisTemplate.opsForValue().increment(catalogueVersionKey);
+    }
+
+    private byte[] key(String productId) {
+        return (keyPrefix + productId).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+package com.waes.test.cache.impl;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * {@link Cache} with a bounded in-process cache in front of a remote one. Reads are served locally when possible and filled from
+ * the remote cache otherwise. Evictions go to both levels and are broadcast, so the other nodes evict their local copies too.
+ * Local keys are the string form of the keys, the same one used on the remote cache keys and on the broadcast.
+ *
+ * @author jonathanadepaula
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache;
+    private final Cache remoteCache;
+    private final Consumer<List<String>> invalidationPublisher;
+
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache, Cache remoteCache,
+                         Consumer<List<String>> invalidationPublisher) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper localValue = localCache.getIfPresent(localKey(key));
+        if (Objects.nonNull(localValue)) {
+            return localValue;
+        }
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (Objects.nonNull(remoteValue)) {
+            localCache.put(localKey(key), remoteValue);
+        }
+        return remoteValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        Object value = Objects.isNull(valueWrapper) ? null : valueWrapper.get();
+        if (Objects.nonNull(value) && Objects.nonNull(type) && !type.isInstance(value)) {
+            throw new IllegalStateException(String.format("Cached value is not of required type [%s]: %s", type.getName(), value));
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Filled through the local cache, so the remote lookup and the load are recorded as the load of the local entry.
+        return (T) localCache.get(localKey(key), localKey -> new SimpleValueWrapper(remoteCache.get(key, valueLoader))).get();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        localCache.put(localKey(key), new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(localKey(key));
+        invalidationPublisher.accept(List.of(localKey(key)));
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        invalidationPublisher.accept(null);
+    }
+
+    /**
+     * Evicts the given keys only from the local cache.
+     *
+     * @param keys string form of the keys
+     */
+    public void evictLocal(Collection<String> keys) {
+        localCache.invalidateAll(keys);
+    }
+
+    /**
+     * Clears only the local cache.
+     */
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
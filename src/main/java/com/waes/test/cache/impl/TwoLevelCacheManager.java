@@ -0,0 +1,119 @@
+package com.waes.test.cache.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.waes.test.model.event.CacheInvalidationEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link CacheManager} which puts a bounded in-process {@link TwoLevelCache} in front of each cache of the remote {@link CacheManager}.
+ * Evictions are broadcast through Redis pub/sub, and the ones received from other nodes are applied to the local caches.
+ * The local entries also expire after a while, bounding how stale they can get if a broadcast is lost.
+ *
+ * @author jonathanadepaula
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final String node = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                                String channel, long localMaxSize, Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remoteCache = remoteCacheManager.getCache(cacheName);
+            if (Objects.isNull(remoteCache)) {
+                return null;
+            }
+            return new TwoLevelCache(cacheName,
+                    Caffeine.newBuilder().maximumSize(localMaxSize).expireAfterWrite(localTtl).recordStats().build(),
+                    remoteCache,
+                    keys -> publish(cacheName, keys));
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * Evicts the given keys from the local cache and broadcasts it, for keys already evicted from the remote cache.
+     *
+     * @param cacheName
+     * @param keys      string form of the keys
+     */
+    public void invalidate(String cacheName, List<String> keys) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (Objects.nonNull(cache)) {
+            cache.evictLocal(keys);
+        }
+        publish(cacheName, keys);
+    }
+
+    /**
+     * Applies to the local caches the evictions broadcast by the other nodes.
+     *
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CacheInvalidationEvent event = objectMapper.readValue(message.getBody(), CacheInvalidationEvent.class);
+            TwoLevelCache cache = caches.get(event.getCacheName());
+            if (node.equals(event.getNode()) || Objects.isNull(cache)) {
+                return;
+            }
+            if (Objects.isNull(event.getKeys())) {
+                cache.clearLocal();
+            } else {
+                cache.evictLocal(event.getKeys());
+            }
+        } catch (Exception e) {
+            log.error("Exception occurred while reading cache invalidation : {} and stacktrace ; {}", e.getMessage(), e);
+        }
+    }
+
+    private void publish(String cacheName, List<String> keys) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(CacheInvalidationEvent.builder()
+                    .node(node)
+                    .cacheName(cacheName)
+                    .keys(keys)
+                    .build()));
+        } catch (Exception e) {
+            // The other nodes keep their local copies until they expire.
+            log.error("Exception occurred while publishing cache invalidation : {} and stacktrace ; {}", e.getMessage(), e);
+        }
+    }
+}
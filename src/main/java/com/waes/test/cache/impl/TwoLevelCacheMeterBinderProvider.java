@@ -0,0 +1,26 @@
+package com.waes.test.cache.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * {@link CacheMeterBinderProvider} which reports the statistics of the local level of a {@link TwoLevelCache}, loads included.
+ * The remote level is reported by the {@link org.springframework.data.redis.cache.RedisCacheManager} itself.
+ *
+ * @author jonathanadepaula
+ */
+public class TwoLevelCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoLevelCache> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MeterBinder getMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+        Cache<Object, Object> localCache = (Cache<Object, Object>) cache.getNativeCache();
+        return registry -> {
+            new CaffeineCacheMetrics(localCache, cache.getName(), tags).bindTo(registry);
+            new CaffeineCacheLoadMetrics(localCache, cache.getName(), tags).bindTo(registry);
+        };
+    }
+}
@@ -0,0 +1,184 @@
+package com.waes.test.cache.serializer;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * {@link RedisSerializer} which writes the product cache values in a compact binary format, with their fields in a fixed order
+ * instead of names and class metadata.
+ * Each value starts with the version of the format and the type of the value. Values of any other version are read as missing, so
+ * during a rolling upgrade the nodes reload and overwrite the entries they can not read instead of failing.
+ *
+ * @author jonathanadepaula
+ */
+@Slf4j
+public class ProductCacheSerializer implements RedisSerializer<Object> {
+
+    static final byte VERSION = 1;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte PRODUCT = 1;
+    private static final byte PRODUCTS = 2;
+
+    private static final int ID = 1;
+    private static final int NAME = 1 << 1;
+    private static final int PRICE = 1 << 2;
+    private static final int QUANTITY = 1 << 3;
+    private static final int PRODUCT_VERSION = 1 << 4;
+    private static final int NEXT = 1 << 5;
+    private static final int BUNDLE = 1 << 6;
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(VERSION);
+            if (value instanceof NullValue) {
+                output.writeByte(NULL_VALUE);
+            } else if (value instanceof ProductDTO) {
+                output.writeByte(PRODUCT);
+                writeProduct(output, (ProductDTO) value);
+            } else if (value instanceof ProductsDTO) {
+                output.writeByte(PRODUCTS);
+                writeProducts(output, (ProductsDTO) value);
+            } else {
+                throw new SerializationException(String.format("Cache values of type %s are not supported.", value.getClass().getName()));
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not write the cache value.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (Objects.isNull(bytes) || bytes.length == 0) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = input.readByte();
+            if (version != VERSION) {
+                log.warn("Ignoring cache value written on version {} of the format.", version);
+                return null;
+            }
+            byte type = input.readByte();
+            switch (type) {
+                case NULL_VALUE:
+                    return NullValue.INSTANCE;
+                case PRODUCT:
+                    return readProduct(input);
+                case PRODUCTS:
+                    return readProducts(input);
+                default:
+                    throw new SerializationException(String.format("Unknown cache value type %s.", type));
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not read the cache value.", e);
+        }
+    }
+
+    private void writeProducts(DataOutputStream output, ProductsDTO productsDTO) throws IOException {
+        output.writeByte(flag(productsDTO.getNext(), NEXT) | flag(productsDTO.getBundle(), BUNDLE));
+        if (Objects.nonNull(productsDTO.getNext())) {
+            output.writeUTF(productsDTO.getNext());
+        }
+        if (Objects.nonNull(productsDTO.getBundle())) {
+            output.writeInt(productsDTO.getBundle().size());
+            for (ProductDTO productDTO : productsDTO.getBundle()) {
+                writeProduct(output, productDTO);
+            }
+        }
+    }
+
+    private ProductsDTO readProducts(DataInputStream input) throws IOException {
+        int flags = input.readByte();
+        ProductsDTO productsDTO = new ProductsDTO();
+        if ((flags & NEXT) != 0) {
+            productsDTO.next(input.readUTF());
+        }
+        if ((flags & BUNDLE) != 0) {
+            int size = input.readInt();
+            List<ProductDTO> bundle = new ArrayList<>(size);
+            for (int index = 0; index < size; index++) {
+                bundle.add(readProduct(input));
+            }
+            productsDTO.bundle(bundle);
+        } else {
+            productsDTO.bundle(null);
+        }
+        return productsDTO;
+    }
+
+    private void writeProduct(DataOutputStream output, ProductDTO productDTO) throws IOException {
+        output.writeByte(flag(productDTO.getId(), ID) | flag(productDTO.getName(), NAME) | flag(productDTO.getPrice(), PRICE)
+                | flag(productDTO.getQuantity(), QUANTITY) | flag(productDTO.getVersion(), PRODUCT_VERSION));
+        if (Objects.nonNull(productDTO.getId())) {
+            UUID id = UUID.fromString(productDTO.getId());
+            output.writeLong(id.getMostSignificantBits());
+            output.writeLong(id.getLeastSignificantBits());
+        }
+        if (Objects.nonNull(productDTO.getName())) {
+            output.writeUTF(productDTO.getName());
+        }
+        if (Objects.nonNull(productDTO.getPrice())) {
+            byte[] unscaledValue = productDTO.getPrice().unscaledValue().toByteArray();
+            output.writeInt(productDTO.getPrice().scale());
+            output.writeShort(unscaledValue.length);
+            output.write(unscaledValue);
+        }
+        if (Objects.nonNull(productDTO.getQuantity())) {
+            output.writeInt(productDTO.getQuantity());
+        }
+        // Written last, RedisProductCache compares it in place before overwriting a cached product.
+        if (Objects.nonNull(productDTO.getVersion())) {
+            output.writeLong(productDTO.getVersion());
+        }
+    }
+
+    private ProductDTO readProduct(DataInputStream input) throws IOException {
+        int flags = input.readByte();
+        ProductDTO productDTO = new ProductDTO();
+        if ((flags & ID) != 0) {
+            productDTO.id(new UUID(input.readLong(), input.readLong()).toString());
+        }
+        if ((flags & NAME) != 0) {
+            productDTO.name(input.readUTF());
+        }
+        if ((flags & PRICE) != 0) {
+            int scale = input.readInt();
+            byte[] unscaledValue = new byte[input.readShort()];
+            input.readFully(unscaledValue);
+            productDTO.price(new BigDecimal(new BigInteger(unscaledValue), scale));
+        }
+        if ((flags & QUANTITY) != 0) {
+            productDTO.quantity(input.readInt());
+        }
+        if ((flags & PRODUCT_VERSION) != 0) {
+            productDTO.version(input.readLong());
+        }
+        return productDTO;
+    }
+
+    private int flag(Object field, int flag) {
+        return Objects.isNull(field) ? 0 : flag;
+    }
+}
@@ -3,9 +3,20 @@ package com.waes.test.config;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waes.test.util.UuidUtils;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.IdGenerator;
+import org.springframework.util.JdkIdGenerator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * General {@link Bean} configuration class.
@@ -29,12 +40,50 @@ public class BeansConfiguration {
     }
 
     /**
-     * Get an {@link OkHttpClient} bean.
+     * Get the {@link IdGenerator} bean used on new products. Time ordered ids keep the inserts at the end of the primary key index,
+     * while random ids spread them across it.
+     *
+     * @param timeOrdered
+     * @return {@link IdGenerator}
+     */
+    @Bean
+    public IdGenerator productIdGenerator(@Value("${products.id.time.ordered}") boolean timeOrdered) {
+        return timeOrdered ? UuidUtils::timeOrderedUuid : new JdkIdGenerator();
+    }
+
+    /**
+     * Get an {@link OkHttpClient} bean. The pool keeps enough connections alive to the downstream service to avoid reconnecting and
+     * repeating the TLS handshake under load, and HTTP/2 lets the calls share them when the server supports it.
      *
+     * @param maxIdleConnections
+     * @param keepAlive in seconds
+     * @param maxRequests maximum number of asynchronous calls running at once
+     * @param maxRequestsPerHost maximum number of asynchronous calls running at once to a single host
+     * @param connectTimeout in milliseconds
+     * @param readTimeout in milliseconds
+     * @param callTimeout in milliseconds, zero for none
+     * @param http2 which indicates if HTTP/2 is preferred over HTTP/1.1
      * @return {@link OkHttpClient}
      */
     @Bean
-    public OkHttpClient okHttpClient() {
-        return new OkHttpClient();
+    public OkHttpClient okHttpClient(@Value("${okhttp.pool.max.idle.connections}") int maxIdleConnections,
+                                     @Value("${okhttp.pool.keep.alive}") long keepAlive,
+                                     @Value("${okhttp.dispatcher.max.requests}") int maxRequests,
+                                     @Value("${okhttp.dispatcher.max.requests.per.host}") int maxRequestsPerHost,
+                                     @Value("${okhttp.timeout.connect}") long connectTimeout,
+                                     @Value("${okhttp.timeout.read}") long readTimeout,
+                                     @Value("${okhttp.timeout.call}") long callTimeout,
+                                     @Value("${okhttp.http2.enabled}") boolean http2) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .readTimeout(Duration.ofMillis(readTimeout))
+                .callTimeout(Duration.ofMillis(callTimeout))
+                .protocols(http2 ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .build();
     }
 }
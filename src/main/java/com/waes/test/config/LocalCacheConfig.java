@@ -0,0 +1,69 @@
+package com.waes.test.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.waes.test.cache.impl.CaffeineCacheLoadMetrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class to configure the local cache, used when Redis is not available.
+ * Caches are bounded by size with the Caffeine frequency aware eviction, expire accordingly with their spec and record
+ * hit, miss, load and eviction statistics, reported on the cache metrics.
+ *
+ * @author jonathanadepaula
+ */
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(value = "local.cache", havingValue = "true")
+public class LocalCacheConfig {
+
+    private static final String PRODUCT_CACHE = "product";
+    private static final String PRODUCTS_CACHE = "productsCache";
+    private static final String CACHE_MANAGER_TAG = "cacheManager";
+
+    @Value("${cache.local.default.spec}")
+    private String defaultSpec;
+
+    @Value("${cache.local.product.spec}")
+    private String productSpec;
+
+    @Value("${cache.local.products.spec}")
+    private String productsSpec;
+
+    /**
+     * If local cache is enabled, it instantiates a {@link CaffeineCacheManager} bean. Caches without a spec of their own use
+     * the default one.
+     *
+     * @return {@link CaffeineCacheManager}
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.from(defaultSpec).recordStats());
+        cacheManager.registerCustomCache(PRODUCT_CACHE, Caffeine.from(productSpec).recordStats().build());
+        cacheManager.registerCustomCache(PRODUCTS_CACHE, Caffeine.from(productsSpec).recordStats().build());
+        return cacheManager;
+    }
+
+    /**
+     * If local cache is enabled, it instantiates a {@link MeterBinder} bean which reports the loads of each cache, next to the
+     * hits, misses, evictions and sizes reported by the cache metrics.
+     *
+     * @param cacheManager
+     * @return {@link MeterBinder}
+     */
+    @Bean
+    public MeterBinder localCacheLoadMetrics(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().forEach(cacheName -> new CaffeineCacheLoadMetrics(
+                (Cache<?, ?>) cacheManager.getCache(cacheName).getNativeCache(), cacheName, Tags.of(CACHE_MANAGER_TAG, "cacheManager"))
+                .bindTo(registry));
+    }
+}
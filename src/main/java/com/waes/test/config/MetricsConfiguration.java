@@ -0,0 +1,56 @@
+package com.waes.test.config;
+
+import com.waes.test.util.OkHttpClientMetrics;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import okhttp3.OkHttpClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Metrics {@link Bean} configuration class.
+ *
+ * @author jonathanadepaula
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    private static final String CACHE_METER_PREFIX = "cache.";
+    private static final String NAME_TAG = "name";
+
+    /**
+     * Instantiate the {@link OkHttpClientMetrics}, which reports the connection pool and dispatcher of the {@link OkHttpClient}.
+     *
+     * @param okHttpClient
+     * @return {@link OkHttpClientMetrics}
+     */
+    @Bean
+    public OkHttpClientMetrics okHttpClientMetrics(OkHttpClient okHttpClient) {
+        return new OkHttpClientMetrics(okHttpClient);
+    }
+
+    /**
+     * Instantiate the {@link MeterFilter} which drops the name tag from the cache meters. Redis caches tag their meters with it,
+     * repeating the cache tag, and Prometheus rejects meters of the same name with different tags, so the meters of the Redis and
+     * Caffeine caches could not be exported together.
+     *
+     * @return {@link MeterFilter}
+     */
+    @Bean
+    public MeterFilter cacheMeterFilter() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                if (!id.getName().startsWith(CACHE_METER_PREFIX) || Objects.isNull(id.getTag(NAME_TAG))) {
+                    return id;
+                }
+                return id.replaceTags(id.getTags().stream()
+                        .filter(tag -> !NAME_TAG.equals(tag.getKey()))
+                        .collect(Collectors.toList()));
+            }
+        };
+    }
+}
@@ -1,12 +1,14 @@
 package com.waes.test.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waes.test.cache.impl.TwoLevelCacheManager;
+import com.waes.test.cache.impl.TwoLevelCacheMeterBinderProvider;
+import com.waes.test.cache.serializer.ProductCacheSerializer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,13 +18,16 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import redis.clients.jedis.Jedis;
 
-import javax.annotation.PostConstruct;
 import java.io.Serializable;
+import java.time.Duration;
 
 /**
  * Configuration class to configure cache accordingly with the flag informed.
@@ -30,21 +35,43 @@ import java.io.Serializable;
  *
  * @author jonathanadepaula
  */
+@Slf4j
 @Configuration
 @AutoConfigureAfter(RedisAutoConfiguration.class)
 @EnableCaching
-@Slf4j
 @ConditionalOnProperty(value = "local.cache", havingValue = "false")
 public class RedisConfig {
 
-    @Autowired
-    private CacheManager cacheManager;
+    private static final String PRODUCT_CACHE = "product";
+    private static final String PRODUCTS_CACHE = "productsCache";
+    private static final String BINARY_FORMAT = "binary";
+
+    @Value("${cache.redis.key.namespace}")
+    private String keyNamespace;
+
+    @Value("${cache.redis.key.version}")
+    private int keyVersion;
+
+    @Value("${cache.redis.key.version.bump.on.startup}")
+    private boolean bumpKeyVersionOnStartup;
+
+    @Value("${cache.redis.ttl}")
+    private long cacheTtl;
+
+    @Value("${cache.local.max.size}")
+    private long localCacheMaxSize;
 
-    @Value("${spring.redis.host}")
-    private String redisHost;
+    @Value("${cache.local.ttl}")
+    private long localCacheTtl;
 
-    @Value("${spring.redis.port}")
-    private int redisPort;
+    @Value("${cache.invalidation.channel}")
+    private String invalidationChannel;
+
+    @Value("${cache.redis.products.ttl}")
+    private long productsCacheTtl;
+
+    @Value("${cache.redis.product.value.format}")
+    private String productCacheValueFormat;
 
     /**
      * If redis cache is enabled, it instantiates a {@link RedisTemplate} bean.
@@ -62,34 +89,123 @@ public class RedisConfig {
     }
 
     /**
-     * If redis cache is enabled, it instantiates a {@link RedisCacheManager} bean.
+     * If redis cache is enabled, it instantiates the {@link RedisCacheConfiguration} shared by the caches.
+     * Keys are prefixed with the namespace and version of the cache, instead of flushing Redis on startup: a deployment with a new
+     * version stops reading the keys of the previous one, which are left to expire.
      *
-     * @param factory
-     * @return {@link RedisCacheManager}
+     * @param stringRedisTemplate
+     * @return {@link RedisCacheConfiguration}
      */
-    @Bean("RedisCacheManager")
-    @Primary
-    public CacheManager cacheManager(RedisConnectionFactory factory) {
+    @Bean
+    public RedisCacheConfiguration redisCacheConfiguration(StringRedisTemplate stringRedisTemplate) {
+        String version = resolveKeyVersion(stringRedisTemplate);
+        log.info("Using the redis cache keys of {} on version {}.", keyNamespace, version);
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig();
-        RedisCacheConfiguration redisCacheConfiguration = config
+        return config
+                .computePrefixWith(cacheName -> String.format("%s:v%s:%s::", keyNamespace, version, cacheName))
+                .entryTtl(Duration.ofSeconds(cacheTtl))
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
                         .fromSerializer(new GenericJackson2JsonRedisSerializer()));
-        RedisCacheManager redisCacheManager = RedisCacheManager.builder(factory).cacheDefaults(redisCacheConfiguration)
+    }
+
+    /**
+     * If redis cache is enabled, it instantiates the {@link RedisSerializer} of the product cache values, accordingly with the
+     * format informed: the compact binary {@link ProductCacheSerializer} or JSON.
+     *
+     * @return {@link RedisSerializer}
+     */
+    @Bean
+    public RedisSerializer<Object> productCacheValueSerializer() {
+        return BINARY_FORMAT.equals(productCacheValueFormat) ? new ProductCacheSerializer() : new GenericJackson2JsonRedisSerializer();
+    }
+
+    /**
+     * If redis cache is enabled, it instantiates a {@link RedisCacheManager} bean, which records hits, misses, puts and
+     * removals of each cache for the cache metrics.
+     *
+     * @param factory
+     * @param redisCacheConfiguration
+     * @return {@link RedisCacheManager}
+     */
+    @Bean("RedisCacheManager")
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory factory, RedisCacheConfiguration redisCacheConfiguration,
+                                               RedisSerializer<Object> productCacheValueSerializer) {
+        RedisCacheConfiguration productCacheConfiguration = redisCacheConfiguration
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(productCacheValueSerializer));
+        // Pages are cached per catalogue version and never evicted, the ones of previous versions are left to expire.
+        return RedisCacheManager.builder(factory).cacheDefaults(redisCacheConfiguration)
+                .enableStatistics()
+                .withCacheConfiguration(PRODUCT_CACHE, productCacheConfiguration)
+                .withCacheConfiguration(PRODUCTS_CACHE, productCacheConfiguration.entryTtl(Duration.ofSeconds(productsCacheTtl)))
                 .build();
-        return redisCacheManager;
     }
 
     /**
-     * Method to clean redis cache after it is instantiated to avoid it carrying data from previous executions.
+     * If redis cache is enabled, it instantiates a {@link TwoLevelCacheManager} bean, which keeps a bounded local cache in front
+     * of the Redis one.
+     *
+     * @param redisCacheManager
+     * @param stringRedisTemplate
+     * @param objectMapper
+     * @return {@link TwoLevelCacheManager}
+     */
+    @Bean
+    @Primary
+    public TwoLevelCacheManager cacheManager(RedisCacheManager redisCacheManager, StringRedisTemplate stringRedisTemplate,
+                                             ObjectMapper objectMapper) {
+        return new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate, objectMapper, invalidationChannel,
+                localCacheMaxSize, Duration.ofSeconds(localCacheTtl));
+    }
+
+    /**
+     * If redis cache is enabled, it instantiates a {@link TwoLevelCacheMeterBinderProvider} bean, so the local caches in front of
+     * Redis are reported on the cache metrics too.
+     *
+     * @return {@link TwoLevelCacheMeterBinderProvider}
+     */
+    @Bean
+    public TwoLevelCacheMeterBinderProvider twoLevelCacheMeterBinderProvider() {
+        return new TwoLevelCacheMeterBinderProvider();
+    }
+
+    /**
+     * If redis cache is enabled, it instantiates a {@link RedisMessageListenerContainer} bean, which applies the cache
+     * invalidations broadcast by the other nodes.
+     *
+     * @param factory
+     * @param twoLevelCacheManager
+     * @return {@link RedisMessageListenerContainer}
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory factory,
+                                                                            TwoLevelCacheManager twoLevelCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(twoLevelCacheManager, new ChannelTopic(invalidationChannel));
+        return container;
+    }
+
+    /**
+     * Resolves the version of the cache keys. When it is bumped on startup, a counter of the startups of the configured version
+     * is incremented on Redis and appended to it, so the keys cached before a restart are not read anymore.
+     *
+     * @param stringRedisTemplate
+     * @return the version of the cache keys
      */
-    @PostConstruct
-    public void clearCache() {
-        log.info("Clearing cache");
-        Jedis jedis = new Jedis(redisHost, redisPort, 1000);
-        jedis.flushAll();
-        jedis.close();
+    private String resolveKeyVersion(StringRedisTemplate stringRedisTemplate) {
+        if (!bumpKeyVersionOnStartup) {
+            return String.valueOf(keyVersion);
+        }
+        try {
+            Long startup = stringRedisTemplate.opsForValue().increment(String.format("%s:v%s:startups", keyNamespace, keyVersion));
+            return String.format("%s.%s", keyVersion, startup);
+        } catch (RuntimeException e) {
+            // Keys of this version may have been cached before the restart, so the ones of this startup are kept apart anyway.
+            log.warn("Failed to bump the redis cache key version on startup, using the startup time instead.", e);
+            return String.format("%s.t%s", keyVersion, System.currentTimeMillis());
+        }
     }
 
 }
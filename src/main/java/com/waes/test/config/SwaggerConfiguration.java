@@ -1,7 +1,14 @@
 package com.waes.test.config;
 
+import com.waes.test.datasource.ReadYourWritesInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
 import springfox.documentation.builders.ApiInfoBuilder;
@@ -28,6 +35,16 @@ public class SwaggerConfiguration extends WebMvcConfigurationSupport {
     public static final String CONTACT_EMAIL = "jonathanpaula22@gmail.com";
     public static final String CONTACT_URL = "https://www.linkedin.com/in/jonathan-de-paula/?locale=en_US";
 
+    @Value("${mvc.async.request.timeout}")
+    private long asyncRequestTimeout;
+    @Value("${mvc.async.executor.pool.size}")
+    private int asyncExecutorPoolSize;
+    @Value("${mvc.async.executor.queue.capacity}")
+    private int asyncExecutorQueueCapacity;
+
+    @Autowired
+    private ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor;
+
     /**
      * Get a {@link Docket} bean.
      *
@@ -71,4 +88,41 @@ public class SwaggerConfiguration extends WebMvcConfigurationSupport {
         registry.addResourceHandler("/webjars/**")
                 .addResourceLocations("classpath:/META-INF/resources/webjars/");
     }
+
+    /**
+     * Get the bounded {@link ThreadPoolTaskExecutor} which runs the asynchronous requests, such as the streamed products export.
+     * Requests beyond its pool and queue are rejected instead of each starting a new thread.
+     *
+     * @return {@link ThreadPoolTaskExecutor}
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(asyncExecutorPoolSize);
+        executor.setMaxPoolSize(asyncExecutorPoolSize);
+        executor.setQueueCapacity(asyncExecutorQueueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        return executor;
+    }
+
+    /**
+     * Configures the executor and the timeout of the asynchronous requests, such as the streamed products export.
+     *
+     * @param configurer
+     */
+    @Override
+    protected void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+        configurer.setDefaultTimeout(asyncRequestTimeout);
+    }
+
+    /**
+     * Adds the read-your-writes interceptor when the reads are routed to a replica.
+     *
+     * @param registry
+     */
+    @Override
+    protected void addInterceptors(InterceptorRegistry registry) {
+        readYourWritesInterceptor.ifAvailable(registry::addInterceptor);
+    }
 }
@@ -1,19 +1,39 @@
 package com.waes.test.controller;
 
-
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waes.test.api.DownstreamApi;
 import com.waes.test.api.V1Api;
+import com.waes.test.exception.BadRequestException;
+import com.waes.test.exception.InternalServerErrorException;
+import com.waes.test.model.BatchResultDTO;
+import com.waes.test.model.BatchUpdateProductDTO;
 import com.waes.test.model.NewProductDTO;
+import com.waes.test.model.ProductChangesDTO;
+import com.waes.test.model.ProductStatsDTO;
 import com.waes.test.model.ProductDTO;
 import com.waes.test.model.ProductsDTO;
 import com.waes.test.model.UpdateProductDTO;
+import com.waes.test.model.filter.ProductFilter;
 import com.waes.test.service.ProductService;
+import com.waes.test.util.ETagUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Products {@link RestController}.
@@ -23,43 +43,185 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @RequiredArgsConstructor
 @Slf4j
-public class ProductsController implements V1Api {
+public class ProductsController implements V1Api, DownstreamApi {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final byte[] NEW_LINE = {'\n'};
 
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Deletes a {@link ProductDTO}.
      *
      * @param id
+     * @param ifMatch ETag of the product version the client expects to delete
      * @return {@link ResponseEntity<Void>}
      */
     @Override
-    public ResponseEntity<Void> deleteProduct(@PathVariable(value = "id") String id) {
-        productService.deleteProduct(id);
+    public ResponseEntity<Void> deleteProduct(@PathVariable(value = "id") String id, @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        productService.deleteProduct(id, ETagUtils.versionFrom(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Deletes a batch of {@link ProductDTO}.
+     *
+     * @param body list of ids
+     * @return {@link ResponseEntity<BatchResultDTO>}
+     */
+    @Override
+    public ResponseEntity<BatchResultDTO> deleteProducts(@RequestBody List<String> body) {
+        return ResponseEntity.ok(productService.deleteProducts(body));
+    }
+
+    /**
+     * Gets a {@link ProductsDTO} with the products of all the given ids
+     *
+     * @param body ids of the products
+     * @return {@link ResponseEntity<ProductsDTO>}
+     */
+    @Override
+    public ResponseEntity<ProductsDTO> lookupProducts(@RequestBody List<String> body) {
+        return ResponseEntity.ok(productService.lookupProducts(body));
+    }
+
     /**
      * Gets a {@link ProductDTO}
      *
      * @param id
-     * @param downstream which indicates if the query should be made on an downstream service
+     * @param downstream deprecated, the requests with downstream=true are answered by getProductFromDownstream
      * @return {@link ResponseEntity<ProductDTO>}
      */
     @Override
     public ResponseEntity<ProductDTO> getProduct(@PathVariable(value = "id") String id, @RequestParam(value = "downstream", required = false, defaultValue = "false") String downstream) {
-        return ResponseEntity.ok(productService.getProduct(id, Boolean.valueOf(downstream)));
+        return withETag(productService.getProduct(id));
+    }
+
+    /**
+     * Gets a {@link ProductDTO} requested with the deprecated downstream=true from the downstream service, as getDownstreamProduct.
+     *
+     * @param id
+     * @return {@link CompletableFuture<ResponseEntity<ProductDTO>>}
+     */
+    @GetMapping(value = "/v1/products/{id}", params = "downstream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<ProductDTO>> getProductFromDownstream(@PathVariable(value = "id") String id) {
+        return getDownstreamProduct(id);
+    }
+
+    /**
+     * Gets a {@link ProductDTO} from the downstream service, releasing the request thread while the downstream service answers.
+     *
+     * @param id
+     * @return {@link CompletableFuture<ResponseEntity<ProductDTO>>}
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<ProductDTO>> getDownstreamProduct(@PathVariable(value = "id") String id) {
+        return productService.getDownstreamProduct(id).thenApply(this::withETag);
     }
 
     /**
-     * Get a {@link ProductsDTO} which bundles a {@link java.util.List<ProductDTO>}.
+     * Get a {@link ProductsDTO} from the downstream service, releasing the request thread while the downstream service answers.
      *
-     * @param downstream which indicates if the query should be made on an downstream service
+     * @return {@link CompletableFuture<ResponseEntity<ProductsDTO>>}
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<ProductsDTO>> getDownstreamProducts() {
+        return productService.getDownstreamProducts().thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Get a {@link ProductsDTO} which bundles a page of {@link java.util.List<ProductDTO>}.
+     *
+     * @param downstream  deprecated, the requests with downstream=true are answered by getProductsFromDownstream
+     * @param limit       maximum number of products on the page
+     * @param cursor      continuation token returned on the previous page
+     * @param priceMin    minimum price
+     * @param priceMax    maximum price
+     * @param quantityMin minimum quantity
+     * @param quantityMax maximum quantity
+     * @param lowStock    which indicates if only low stock products should be returned
      * @return {@link ResponseEntity<ProductsDTO>}
      */
     @Override
-    public ResponseEntity<ProductsDTO> getProducts(@RequestParam(value = "downstream", required = false, defaultValue = "false") String downstream) {
-        return ResponseEntity.ok(productService.getProducts(Boolean.valueOf(downstream)));
+    public ResponseEntity<ProductsDTO> getProducts(@RequestParam(value = "downstream", required = false, defaultValue = "false") String downstream,
+                                                   @RequestParam(value = "limit", required = false) Integer limit,
+                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                   @RequestParam(value = "priceMin", required = false) BigDecimal priceMin,
+                                                   @RequestParam(value = "priceMax", required = false) BigDecimal priceMax,
+                                                   @RequestParam(value = "quantityMin", required = false) Integer quantityMin,
+                                                   @RequestParam(value = "quantityMax", required = false) Integer quantityMax,
+                                                   @RequestParam(value = "lowStock", required = false, defaultValue = "false") Boolean lowStock) {
+        ProductFilter productFilter = ProductFilter.builder()
+                .priceMin(priceMin)
+                .priceMax(priceMax)
+                .quantityMin(quantityMin)
+                .quantityMax(quantityMax)
+                .lowStock(Boolean.TRUE.equals(lowStock))
+                .build();
+        return ResponseEntity.ok(productService.getProducts(limit, cursor, productFilter));
+    }
+
+    /**
+     * Get a {@link ProductsDTO} requested with the deprecated downstream=true from the downstream service, as getDownstreamProducts.
+     *
+     * @return {@link CompletableFuture<ResponseEntity<ProductsDTO>>}
+     */
+    @GetMapping(value = "/v1/products", params = "downstream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<ProductsDTO>> getProductsFromDownstream() {
+        return getDownstreamProducts();
+    }
+
+    /**
+     * Get a {@link ProductChangesDTO} which bundles a page of the products changed after the given sequence, deletes included.
+     *
+     * @param since sequence returned as next on the previous page
+     * @param limit maximum number of changes on the page
+     * @return {@link ResponseEntity<ProductChangesDTO>}
+     */
+    @Override
+    public ResponseEntity<ProductChangesDTO> getProductChanges(@RequestParam(value = "since", required = false, defaultValue = "0") Long since,
+                                                               @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getProductChanges(since, limit));
+    }
+
+    /**
+     * Get the {@link ProductStatsDTO} of the catalogue.
+     *
+     * @return {@link ResponseEntity<ProductStatsDTO>}
+     */
+    @Override
+    public ResponseEntity<ProductStatsDTO> getProductStats() {
+        return ResponseEntity.ok(productService.getProductStats());
+    }
+
+    /**
+     * Exports the {@link ProductDTO} as newline-delimited JSON, streaming them to the client as they are read from the database.
+     *
+     * @param priceMin    minimum price
+     * @param priceMax    maximum price
+     * @param quantityMin minimum quantity
+     * @param quantityMax maximum quantity
+     * @param lowStock    which indicates if only low stock products should be returned
+     * @param sort        field the products are ordered by
+     * @return {@link ResponseEntity<StreamingResponseBody>}
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(value = "priceMin", required = false) BigDecimal priceMin,
+                                                                @RequestParam(value = "priceMax", required = false) BigDecimal priceMax,
+                                                                @RequestParam(value = "quantityMin", required = false) Integer quantityMin,
+                                                                @RequestParam(value = "quantityMax", required = false) Integer quantityMax,
+                                                                @RequestParam(value = "lowStock", required = false, defaultValue = "false") Boolean lowStock,
+                                                                @RequestParam(value = "sort", required = false, defaultValue = "id") String sort) {
+        ProductFilter productFilter = ProductFilter.builder()
+                .priceMin(priceMin)
+                .priceMax(priceMax)
+                .quantityMin(quantityMin)
+                .quantityMax(quantityMax)
+                .lowStock(Boolean.TRUE.equals(lowStock))
+                .build();
+        StreamingResponseBody body = outputStream -> productService.exportProducts(productFilter, sort, productDTO -> writeLine(outputStream, productDTO));
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     /**
@@ -73,15 +235,60 @@ public class ProductsController implements V1Api {
         return ResponseEntity.created(null).body(productService.saveProduct(body));
     }
 
+    /**
+     * Persists a batch of {@link ProductDTO} in a single transaction.
+     *
+     * @param body {@link List<NewProductDTO>}
+     * @return {@link ResponseEntity<ProductsDTO>}
+     */
+    @Override
+    public ResponseEntity<ProductsDTO> persistProducts(@RequestBody List<NewProductDTO> body) {
+        return ResponseEntity.created(null).body(productService.saveProducts(body));
+    }
+
     /**
      * Updates an existing {@link ProductDTO}.
      *
-     * @param body {@link UpdateProductDTO}
+     * @param body    {@link UpdateProductDTO}
      * @param id
+     * @param ifMatch ETag of the product version the client expects to update
      * @return {@link ResponseEntity<ProductDTO>}
      */
     @Override
-    public ResponseEntity<ProductDTO> updateProduct(@RequestBody UpdateProductDTO body, @PathVariable(value = "id") String id) {
-        return ResponseEntity.ok(productService.updateProduct(body, id));
+    public ResponseEntity<ProductDTO> updateProduct(@RequestBody UpdateProductDTO body, @PathVariable(value = "id") String id,
+                                                    @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return withETag(productService.updateProduct(body, id, ETagUtils.versionFrom(ifMatch)));
+    }
+
+    /**
+     * Updates a batch of existing {@link ProductDTO}.
+     *
+     * @param body {@link List<BatchUpdateProductDTO>}
+     * @return {@link ResponseEntity<BatchResultDTO>}
+     */
+    @Override
+    public ResponseEntity<BatchResultDTO> updateProducts(@RequestBody List<BatchUpdateProductDTO> body) {
+        return ResponseEntity.ok(productService.updateProducts(body));
+    }
+
+    private ResponseEntity<ProductDTO> withETag(ProductDTO productDTO) {
+        // The downstream service answers without a product when it has none for the id.
+        if (Objects.isNull(productDTO)) {
+            throw new BadRequestException("Product not found with the provided Id");
+        }
+        if (Objects.isNull(productDTO.getVersion())) {
+            return ResponseEntity.ok(productDTO);
+        }
+        return ResponseEntity.ok().eTag(ETagUtils.from(productDTO.getVersion())).body(productDTO);
+    }
+
+    private void writeLine(OutputStream outputStream, ProductDTO productDTO) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(productDTO));
+            outputStream.write(NEW_LINE);
+        } catch (IOException e) {
+            log.error("Failed to write product {} to the export stream.", productDTO.getId(), e);
+            throw new InternalServerErrorException("Failed to write the products export.");
+        }
     }
 }
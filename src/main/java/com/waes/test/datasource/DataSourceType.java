@@ -0,0 +1,11 @@
+package com.waes.test.datasource;
+
+/**
+ * Enum which represents the databases a connection can be routed to.
+ *
+ * @author jonathanadepaula
+ */
+public enum DataSourceType {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,58 @@
+package com.waes.test.datasource;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.function.Supplier;
+
+/**
+ * Utility class to hold, for the current thread, if the reads must go to the primary database so a client sees its own writes.
+ *
+ * @author jonathanadepaula
+ */
+@UtilityClass
+public class ReadYourWritesContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * Routes all the reads of the current thread to the primary database.
+     */
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    /**
+     * Checks if the reads of the current thread must go to the primary database.
+     *
+     * @return boolean
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get();
+    }
+
+    /**
+     * Runs the given reads on the primary database, restoring the state of the current thread afterwards.
+     *
+     * @param reads
+     * @param <T>
+     * @return the result of the reads
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (isPrimaryRequired()) {
+            return reads.get();
+        }
+        requirePrimary();
+        try {
+            return reads.get();
+        } finally {
+            clear();
+        }
+    }
+
+    /**
+     * Clears the state of the current thread.
+     */
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
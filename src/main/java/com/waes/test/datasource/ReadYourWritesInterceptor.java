@@ -0,0 +1,143 @@
+package com.waes.test.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * {@link AsyncHandlerInterceptor} which sends the reads of a client to the primary database during the configured window after its
+ * last write, so it does not miss its own writes while the replica catches up.
+ * Nothing is kept on the node: a successful write answers with its commit time on the X-Last-Write header and cookie, and the client
+ * echoes either of them back on its next requests. Clients which echo neither are only guaranteed to see their writes on the write
+ * request itself, which always runs on the primary.
+ *
+ * @author jonathanadepaula
+ */
+@ControllerAdvice
+@ConditionalOnProperty(value = "datasource.replica.enabled", havingValue = "true")
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    public static final String LAST_WRITE_HEADER = "X-Last-Write";
+    public static final String LAST_WRITE_COOKIE = "last-write";
+
+    // How far ahead of this node clock a marker stamped by another node may be.
+    private static final long MAX_CLOCK_SKEW_MILLIS = 1_000;
+
+    private final long windowMillis;
+
+    public ReadYourWritesInterceptor(@Value("${datasource.read.your.writes.window}") long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (windowMillis > 0 && isRead(request.getMethod()) && isWithinWindow(lastWriteOf(request))) {
+            ReadYourWritesContext.requirePrimary();
+        }
+        return true;
+    }
+
+    /**
+     * Clears the context when the request goes async, as afterCompletion then runs on another thread.
+     *
+     * @param request
+     * @param response
+     * @param handler
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWritesContext.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadYourWritesContext.clear();
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return windowMillis > 0;
+    }
+
+    /**
+     * Adds the write marker to the response of a successful write. The body is written once the transaction of the write has
+     * committed, so the marker holds the commit time.
+     *
+     * @param body
+     * @param returnType
+     * @param selectedContentType
+     * @param selectedConverterType
+     * @param request
+     * @param response
+     * @return the body, unchanged
+     */
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!isRead(request.getMethodValue()) && isSuccessful(response)) {
+            String lastWrite = String.valueOf(System.currentTimeMillis());
+            ResponseCookie cookie = ResponseCookie.from(LAST_WRITE_COOKIE, lastWrite)
+                    .path("/")
+                    .httpOnly(true)
+                    .maxAge(Duration.ofMillis(windowMillis).plusSeconds(1).getSeconds())
+                    .build();
+            response.getHeaders().set(LAST_WRITE_HEADER, lastWrite);
+            response.getHeaders().add(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        return body;
+    }
+
+    private boolean isWithinWindow(String lastWrite) {
+        if (Objects.isNull(lastWrite)) {
+            return false;
+        }
+        long lastWriteMillis;
+        try {
+            lastWriteMillis = Long.parseLong(lastWrite);
+        } catch (NumberFormatException e) {
+            // Markers are only stamped by this service, anything else is treated as absent.
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        // Markers further ahead than the clock skew between nodes were not stamped by this service, otherwise they would pin the
+        // client reads to the primary for as long as it echoes them.
+        return lastWriteMillis >= now - windowMillis && lastWriteMillis <= now + MAX_CLOCK_SKEW_MILLIS;
+    }
+
+    private String lastWriteOf(HttpServletRequest request) {
+        String lastWrite = request.getHeader(LAST_WRITE_HEADER);
+        if (Objects.nonNull(lastWrite)) {
+            return lastWrite;
+        }
+        Cookie cookie = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+        return Objects.isNull(cookie) ? null : cookie.getValue();
+    }
+
+    private boolean isSuccessful(ServerHttpResponse response) {
+        return response instanceof ServletServerHttpResponse
+                && ((ServletServerHttpResponse) response).getServletResponse().getStatus() < 400;
+    }
+
+    private boolean isRead(String method) {
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+    }
+}
@@ -0,0 +1,15 @@
+package com.waes.test.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * PreconditionFailedException that extends {@link BaseException}.
+ *
+ * @author jonathanadepaula
+ */
+public class PreconditionFailedException extends BaseException {
+
+    public PreconditionFailedException(String errorMessageDetail) {
+        super(errorMessageDetail, HttpStatus.PRECONDITION_FAILED);
+    }
+}
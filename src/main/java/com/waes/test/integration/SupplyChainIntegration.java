@@ -4,6 +4,8 @@ import com.waes.test.model.ProductDTO;
 import com.waes.test.model.ProductsDTO;
 import com.waes.test.model.UpdateProductDTO;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface to define the contract of all operations with Supply Chain Service.
  *
@@ -18,6 +20,13 @@ public interface SupplyChainIntegration {
      */
     ProductsDTO getProducts();
 
+    /**
+     * Get a {@link ProductsDTO} which bundles a {@link java.util.List<ProductDTO>}, without blocking the calling thread.
+     *
+     * @return {@link CompletableFuture<ProductsDTO>}
+     */
+    CompletableFuture<ProductsDTO> getProductsAsync();
+
     /**
      * Gets a {@link ProductDTO}
      *
@@ -26,6 +35,14 @@ public interface SupplyChainIntegration {
      */
     ProductDTO getProduct(String productId);
 
+    /**
+     * Gets a {@link ProductDTO}, without blocking the calling thread.
+     *
+     * @param productId
+     * @return {@link CompletableFuture<ProductDTO>}
+     */
+    CompletableFuture<ProductDTO> getProductAsync(String productId);
+
     /**
      * Persists a {@link ProductDTO}.
      *
@@ -1,5 +1,7 @@
 package com.waes.test.integration.impl;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.waes.test.exception.BadRequestException;
 import com.waes.test.integration.SupplyChainIntegration;
 import com.waes.test.model.ProductDTO;
@@ -8,11 +10,16 @@ import com.waes.test.model.UpdateProductDTO;
 import com.waes.test.model.event.ActionEnum;
 import com.waes.test.util.HttpUtils;
 import com.waes.test.util.ProductsMapperUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Supplier;
 
 /**
@@ -25,43 +32,70 @@ import java.util.function.Supplier;
 @Slf4j
 public class SupplyChainIntegrationImpl implements SupplyChainIntegration {
 
+    private static final String CACHE_MANAGER_TAG = "cacheManager";
+
     private final String supplyChainIntegrationBasePath;
     private final String supplyChainIntegrationResourcesPath;
     private final HttpUtils httpUtils;
     private final String url;
+    // Reads are cached, as the Supply Chain API is slow and its data changes rarely. Entries are reloaded in the background once
+    // older than the refresh interval, so callers keep getting the current one, and concurrent misses of a key share a single call.
+    // Loads are asynchronous, the blocking reads wait on them.
+    private final AsyncLoadingCache<String, ProductDTO> productCache;
+    private final AsyncLoadingCache<String, ProductsDTO> productsCache;
 
     public SupplyChainIntegrationImpl(@Value("${supply.chain.base.url}") String supplyChainIntegrationBasePath,
                                       @Value("${supply.chain.resources.path}") String supplyChainIntegrationResourcesPath,
-                                      HttpUtils httpUtils) {
+                                      HttpUtils httpUtils,
+                                      @Value("${supply.chain.cache.ttl}") long cacheTtl,
+                                      @Value("${supply.chain.cache.refresh}") long cacheRefresh,
+                                      @Value("${supply.chain.cache.max.size}") long cacheMaxSize,
+                                      MeterRegistry meterRegistry) {
         this.supplyChainIntegrationBasePath = supplyChainIntegrationBasePath;
         this.supplyChainIntegrationResourcesPath = supplyChainIntegrationResourcesPath;
         this.httpUtils = httpUtils;
         this.url = supplyChainIntegrationBasePath.concat(supplyChainIntegrationResourcesPath);
+        this.productCache = buildCache(cacheTtl, cacheRefresh, cacheMaxSize).buildAsync((productId, executor) ->
+                httpUtils.executeCallAsync(() -> httpUtils.executeGetRequestAsync(getUrlWithProductId(productId), ProductDTO.class)));
+        this.productsCache = buildCache(cacheTtl, cacheRefresh, 1).buildAsync((productsUrl, executor) ->
+                httpUtils.executeCallAsync(() -> httpUtils.executeGetRequestAsync(productsUrl, ProductsDTO.class)));
+        CaffeineCacheMetrics.monitor(meterRegistry, productCache, "supplyChainProduct", CACHE_MANAGER_TAG, "supplyChain");
+        CaffeineCacheMetrics.monitor(meterRegistry, productsCache, "supplyChainProducts", CACHE_MANAGER_TAG, "supplyChain");
     }
 
     @Override
     public ProductsDTO getProducts() {
+        return join(getProductsAsync());
+    }
+
+    @Override
+    public CompletableFuture<ProductsDTO> getProductsAsync() {
         log.info("Getting All Products from Supply Chain Integration.");
-        Supplier<ProductsDTO> getProductsDTOSupplier = () -> httpUtils.executeGetRequest(this.url, ProductsDTO.class);
-        Optional<ProductsDTO> optional = Optional.ofNullable(httpUtils.executeCall(getProductsDTOSupplier));
-        return optional.orElseGet(() -> {
+        return productsCache.get(this.url).thenApply(productsDTO -> Optional.ofNullable(productsDTO).orElseGet(() -> {
             log.warn("The  from Supply Chain Integration API has not returned a list of products.");
             return new ProductsDTO();
-        });
+        }));
     }
 
     @Override
     public ProductDTO getProduct(String productId) {
+        return join(getProductAsync(productId));
+    }
+
+    @Override
+    public CompletableFuture<ProductDTO> getProductAsync(String productId) {
         log.info("Getting Product with id {} from Supply Chain Integration.", productId);
-        Supplier<ProductDTO> getProductDTOSupplier = () -> httpUtils.executeGetRequest(getUrlWithProductId(productId), ProductDTO.class);
-        return httpUtils.executeCall(getProductDTOSupplier);
+        // A copy, so callers completing or cancelling it do not change the cached one.
+        return productCache.get(productId).copy();
     }
 
     @Override
     public ProductDTO createNewProduct(ProductDTO productDTO) {
         log.info("Creating Product with data {} on Supply Chain Integration.", productDTO);
         Supplier<ProductDTO> createNewProductSupplier = () -> httpUtils.executePostRequest(this.url, productDTO, ProductDTO.class);
-        return httpUtils.executeCallWithObserver(createNewProductSupplier, productDTO, ActionEnum.CREATE);
+        ProductDTO createdProductDTO = httpUtils.executeCallWithObserver(createNewProductSupplier, productDTO, ActionEnum.CREATE);
+        productsCache.synchronous().invalidateAll();
+        return createdProductDTO;
     }
 
     @Override
@@ -70,7 +104,9 @@ public class SupplyChainIntegrationImpl implements SupplyChainIntegration {
         validateProductId(productId);
         ProductDTO productDTO = ProductsMapperUtils.productDtofrom(updateProductDTO, productId);
         Supplier<ProductDTO> updateProductSupplier = () -> httpUtils.executePostRequest(this.url, productDTO, ProductDTO.class);
-        return httpUtils.executeCallWithObserver(updateProductSupplier, productDTO, ActionEnum.UPDATE);
+        ProductDTO updatedProductDTO = httpUtils.executeCallWithObserver(updateProductSupplier, productDTO, ActionEnum.UPDATE);
+        invalidate(productId);
+        return updatedProductDTO;
     }
 
     @Override
@@ -79,12 +115,62 @@ public class SupplyChainIntegrationImpl implements SupplyChainIntegration {
         validateProductId(productId);
         Supplier<Void> deleteProductSupplier = () -> httpUtils.executeDeleteRequest(getUrlWithProductId(productId), Void.class);
         httpUtils.executeCallWithObserver(deleteProductSupplier, new ProductDTO().id(productId), ActionEnum.DELETE);
+        invalidate(productId);
+    }
+
+    /**
+     * Evicts the given product and the list of products, so the next reads see the change made through this node.
+     *
+     * @param productId
+     */
+    private void invalidate(String productId) {
+        productCache.synchronous().invalidate(productId);
+        productsCache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Waits for the given call, rethrowing the exception it failed with as it is.
+     *
+     * @param future
+     * @param <T>
+     * @return <T>
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Builds a cache whose entries expire after the given ttl, and are reloaded in the background on the first read after the given
+     * refresh interval. A failed reload keeps the current entry until it expires.
+     *
+     * @param ttl     in seconds
+     * @param refresh in seconds
+     * @param maxSize
+     * @return {@link Caffeine}
+     */
+    private static Caffeine<Object, Object> buildCache(long ttl, long refresh, long maxSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .refreshAfterWrite(Duration.ofSeconds(refresh))
+                .recordStats();
     }
 
+    /**
+     * Validates that the product exists on the Supply Chain API before writing it. It is asked directly, as the cached product may
+     * have been deleted since it was loaded, and a product found missing is evicted from the cache.
+     *
+     * @param productId
+     */
     private void validateProductId(String productId) {
         try {
-            getProduct(productId);
+            httpUtils.executeCall(() -> httpUtils.executeGetRequest(getUrlWithProductId(productId), ProductDTO.class));
         } catch (BadRequestException e) {
+            productCache.synchronous().invalidate(productId);
             throw new BadRequestException(String.format("We could not find a valid Product with the provided Id %s.", productId));
         }
     }
@@ -1,17 +1,29 @@
 package com.waes.test.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Type;
+import org.springframework.data.domain.Persistable;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 import java.math.BigDecimal;
+import java.util.UUID;
 
 /**
  * Entity class to be persisted on the product table.
+ * Implements {@link Persistable} so entities with a freshly assigned id are inserted without a previous select.
+ * The id is stored as 16 bytes, it is only rendered as a string on the API.
  *
  * @author jonathanadepaula
  */
@@ -21,14 +33,36 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @Entity
 @Table(name = "product")
-public class ProductEntity {
+public class ProductEntity implements Persistable<UUID> {
 
     @Id
-    private String id;
+    @Type(type = "uuid-binary")
+    private UUID id;
 
     private String name;
 
     private BigDecimal price;
 
     private Integer quantity;
+
+    @Version
+    private Long version;
+
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean persisted;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
 }
@@ -0,0 +1,25 @@
+package com.waes.test.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * CacheInvalidationEvent class which represents the keys evicted from a cache by a node, broadcast so the other nodes evict them
+ * from their local cache too. When no keys are sent the whole cache was cleared.
+ *
+ * @author jonathanadepaula
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheInvalidationEvent {
+
+    private String node;
+    private String cacheName;
+    private List<String> keys;
+}
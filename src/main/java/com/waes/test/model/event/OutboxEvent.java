@@ -0,0 +1,24 @@
+package com.waes.test.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * OutboxEvent class which represents an {@link Event} stored on the outbox, waiting to be relayed to SQS.
+ * It is claimed while a relay publishes it, and counts the attempts SQS rejected it.
+ *
+ * @author jonathanadepaula
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    private Long id;
+    private Event event;
+    private int attempts;
+    private boolean claimed;
+}
@@ -0,0 +1,26 @@
+package com.waes.test.model.filter;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Filter class which represents the optional ranges used to select the products of a page. Null bounds are not applied.
+ *
+ * @author jonathanadepaula
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFilter {
+
+    private BigDecimal priceMin;
+    private BigDecimal priceMax;
+    private Integer quantityMin;
+    private Integer quantityMax;
+    private boolean lowStock;
+}
@@ -0,0 +1,19 @@
+package com.waes.test.model.filter;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Enum which represents the fields the products can be ordered by, with the column each one is sorted on.
+ *
+ * @author jonathanadepaula
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ProductSortEnum {
+    ID("id"),
+    PRICE("price"),
+    QUANTITY("quantity");
+
+    private final String column;
+}
@@ -3,6 +3,8 @@ package com.waes.test.observer;
 import com.waes.test.model.event.ActionEnum;
 import com.waes.test.model.event.EventTypeEnum;
 
+import java.util.List;
+
 /**
  * Interface to define the contract of all operations that need to be Observed.
  *
@@ -18,4 +20,15 @@ public interface Observer<T> {
      * @param eventType  {@link EventTypeEnum}
      */
     void notifyObserver(T ob, ActionEnum actionEnum, EventTypeEnum eventType);
+
+    /**
+     * Notifies the observer that a batch of {@link com.waes.test.model.event.Event} must be created and processed later.
+     *
+     * @param obs
+     * @param actionEnum {@link ActionEnum}
+     * @param eventType  {@link EventTypeEnum}
+     */
+    default void notifyObservers(List<T> obs, ActionEnum actionEnum, EventTypeEnum eventType) {
+        obs.forEach(ob -> notifyObserver(ob, actionEnum, eventType));
+    }
 }
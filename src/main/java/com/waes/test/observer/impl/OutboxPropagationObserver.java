@@ -0,0 +1,74 @@
+package com.waes.test.observer.impl;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.event.ActionEnum;
+import com.waes.test.model.event.Event;
+import com.waes.test.model.event.EventTypeEnum;
+import com.waes.test.observer.Observer;
+import com.waes.test.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@link Component} class to handle Observer notifications whenever there is a need to propagate an Event to the downstream service.
+ * The Events are stored on the outbox within the transaction of the product change, and relayed to SQS later.
+ * Implements {@link Observer<ProductDTO>} interface.
+ *
+ * @author jonathanadepaula
+ */
+@Component("propagationObserver")
+@Slf4j
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxPropagationObserver implements Observer<ProductDTO> {
+
+    private final OutboxRepository outboxRepository;
+
+    /**
+     * Stores on the outbox an Event to propagate data to the 3rd party API.
+     *
+     * @param productDTO {@link ProductDTO}
+     * @param action     {@link ActionEnum}
+     * @param eventType  {@link EventTypeEnum}
+     */
+    @Override
+    public void notifyObserver(ProductDTO productDTO, ActionEnum action, EventTypeEnum eventType) {
+        log.info("Adding new event to the outbox. ProductDTO: {}, Action: {} ,EventType: {}", productDTO, action, eventType);
+        outboxRepository.saveAll(List.of(eventFrom(productDTO, action, eventType)));
+    }
+
+    /**
+     * Stores on the outbox a batch of Events to propagate data to the 3rd party API.
+     *
+     * @param productDTOList {@link List<ProductDTO>}
+     * @param action         {@link ActionEnum}
+     * @param eventType      {@link EventTypeEnum}
+     */
+    @Override
+    public void notifyObservers(List<ProductDTO> productDTOList, ActionEnum action, EventTypeEnum eventType) {
+        if (productDTOList.isEmpty()) {
+            return;
+        }
+        log.info("Adding {} new events to the outbox. Action: {} ,EventType: {}", productDTOList.size(), action, eventType);
+        outboxRepository.saveAll(productDTOList.stream()
+                .map(productDTO -> eventFrom(productDTO, action, eventType))
+                .collect(Collectors.toList()));
+    }
+
+    private Event eventFrom(ProductDTO productDTO, ActionEnum action, EventTypeEnum eventType) {
+        return Event.builder()
+                .action(action)
+                .eventType(eventType)
+                .id(productDTO.getId())
+                .name(productDTO.getName())
+                .price(productDTO.getPrice())
+                .quantity(productDTO.getQuantity())
+                .build();
+    }
+}
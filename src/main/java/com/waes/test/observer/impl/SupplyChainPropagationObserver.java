@@ -1,29 +1,32 @@
 package com.waes.test.observer.impl;
 
 import com.amazonaws.services.sqs.AmazonSQS;
-import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.waes.test.model.ProductDTO;
-import com.waes.test.model.event.ActionEnum;
-import com.waes.test.model.event.Event;
-import com.waes.test.model.event.EventTypeEnum;
-import com.waes.test.observer.Observer;
+import com.waes.test.model.event.OutboxEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * {@link Component} class to handle Observer notifications whenever there is a need to propagate an Event to the downstream service.
- * Implements {@link Observer<ProductDTO>} interface.
+ * {@link Component} class to propagate the Events relayed from the outbox to the downstream service through SQS.
+ * The product changes themselves go through the outbox, see {@link OutboxPropagationObserver}.
  *
  * @author jonathanadepaula
  */
-@Component("propagationObserver")
+@Component("sqsPropagationObserver")
 @Slf4j
-public class SupplyChainPropagationObserver implements Observer<ProductDTO> {
+public class SupplyChainPropagationObserver {
+
+    private static final String MESSAGE_GROUP_ID = "Propagate Event Queue";
+    // Maximum number of entries accepted by SQS on a single SendMessageBatch request.
+    public static final int MAX_BATCH_ENTRIES = 10;
 
     private final AmazonSQS amazonSQS;
     private final ObjectMapper objectMapper;
@@ -37,45 +40,40 @@ public class SupplyChainPropagationObserver implements Observer<ProductDTO> {
     }
 
     /**
-     * Notifies that an Event to propagate data to the 3rd party API should be published SQS to be processed later.
+     * Sends up to ten outbox Events on SQS with a single request. The outbox id is used as the deduplication id, so an Event sent
+     * again after a relay failure is not delivered twice within the SQS deduplication interval. A request that fails as a whole,
+     * such as when SQS cannot be reached, throws, so it can be told apart from the Events rejected one by one.
      *
-     * @param productDTO {@link ProductDTO}
-     * @param action     {@link ActionEnum}
-     * @param eventType  {@link EventTypeEnum}
+     * @param outboxEvents
+     * @return {@link List<OutboxEvent>} with the Events that could not be serialized or were rejected by SQS
      */
-    @Override
-    public void notifyObserver(ProductDTO productDTO, ActionEnum action, EventTypeEnum eventType) {
-        log.info("Adding new event to the queue to be reprocessed later. ProductDTO: {}, Action: {} ,EventType: {}", productDTO, action, eventType);
-        Event event = Event.builder()
-                .action(action)
-                .eventType(eventType)
-                .id(productDTO.getId())
-                .name(productDTO.getName())
-                .price(productDTO.getPrice())
-                .quantity(productDTO.getQuantity())
-                .build();
-        publishEvent(event);
-    }
-
-    /**
-     * Publishes event on SQS.
-     *
-     * @param message
-     */
-    public void publishEvent(Event message) {
-        log.info("Publishing propagate event : {}", message);
-        SendMessageRequest sendMessageRequest;
-        try {
-            sendMessageRequest = new SendMessageRequest().withQueueUrl(queue)
-                    .withMessageBody(objectMapper.writeValueAsString(message))
-                    .withMessageGroupId("Propagate Event Queue")
-                    .withMessageDeduplicationId(UUID.randomUUID().toString());
-            amazonSQS.sendMessage(sendMessageRequest);
-            log.info("Event has been published in SQS.");
-        } catch (JsonProcessingException e) {
-            log.error("JsonProcessingException e : {} and stacktrace : {}", e.getMessage(), e);
-        } catch (Exception e) {
-            log.error("Exception occurred while pushing event to sqs : {} and stacktrace ; {}", e.getMessage(), e);
+    public List<OutboxEvent> sendEvents(List<OutboxEvent> outboxEvents) {
+        log.info("Publishing {} propagate events in batch.", outboxEvents.size());
+        List<OutboxEvent> failedEvents = new ArrayList<>();
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(outboxEvents.size());
+        for (int index = 0; index < outboxEvents.size(); index++) {
+            OutboxEvent outboxEvent = outboxEvents.get(index);
+            try {
+                entries.add(new SendMessageBatchRequestEntry()
+                        .withId(String.valueOf(index))
+                        .withMessageBody(objectMapper.writeValueAsString(outboxEvent.getEvent()))
+                        .withMessageGroupId(MESSAGE_GROUP_ID)
+                        .withMessageDeduplicationId(String.valueOf(outboxEvent.getId())));
+            } catch (JsonProcessingException e) {
+                log.error("JsonProcessingException e : {} and stacktrace : {}", e.getMessage(), e);
+                failedEvents.add(outboxEvent);
+            }
+        }
+        if (entries.isEmpty()) {
+            return failedEvents;
         }
+        SendMessageBatchResult result = amazonSQS.sendMessageBatch(new SendMessageBatchRequest().withQueueUrl(queue).withEntries(entries));
+        result.getFailed().forEach(failed -> {
+            OutboxEvent failedEvent = outboxEvents.get(Integer.parseInt(failed.getId()));
+            log.error("Failed to publish event {} in SQS : {}", failedEvent, failed.getMessage());
+            failedEvents.add(failedEvent);
+        });
+        log.info("{} events have been published in SQS.", result.getSuccessful().size());
+        return failedEvents;
     }
 }
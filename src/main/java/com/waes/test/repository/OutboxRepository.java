@@ -0,0 +1,66 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.event.Event;
+import com.waes.test.model.event.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Interface to handle the outbox of {@link Event}, written on the same transaction as the product changes and drained later.
+ *
+ * @author jonathanadepaula
+ */
+public interface OutboxRepository {
+
+    /**
+     * Stores the given events on the outbox, as a single JDBC batch.
+     *
+     * @param events {@link List<Event>}
+     */
+    void saveAll(List<Event> events);
+
+    /**
+     * Finds the oldest events of the outbox, claimed or not, locking them until the end of the current transaction.
+     *
+     * @param limit
+     * @return {@link List<OutboxEvent>} in the order they were stored
+     */
+    List<OutboxEvent> findOldest(int limit);
+
+    /**
+     * Claims the events with the given ids for the given timeout, so no other relay takes them while they are published.
+     *
+     * @param ids
+     * @param timeoutMillis
+     */
+    void claimAll(List<Long> ids, long timeoutMillis);
+
+    /**
+     * Releases the claim of the events with the given ids, so they are taken again by the next relay.
+     *
+     * @param ids
+     */
+    void releaseAll(List<Long> ids);
+
+    /**
+     * Counts an attempt on the events with the given ids, rejected by SQS.
+     *
+     * @param ids
+     */
+    void recordFailures(List<Long> ids);
+
+    /**
+     * Moves the events which reached the given attempts to the dead letter table.
+     *
+     * @param maxAttempts
+     * @return the number of events moved
+     */
+    int moveToDeadLetter(int maxAttempts);
+
+    /**
+     * Deletes the events with the given ids from the outbox.
+     *
+     * @param ids
+     */
+    void deleteAll(List<Long> ids);
+}
@@ -0,0 +1,94 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.event.ActionEnum;
+import com.waes.test.model.event.Event;
+import com.waes.test.model.event.EventTypeEnum;
+import com.waes.test.model.event.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link OutboxRepository}.
+ *
+ * @author jonathanadepaula
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepositoryImpl implements OutboxRepository {
+
+    private static final String INSERT_EVENT = "INSERT INTO product_outbox (action, event_type, product_id, name, price, quantity) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_OLDEST_EVENTS = "SELECT id, action, event_type, product_id, name, price, quantity, attempts, "
+            + "claimed_until > CURRENT_TIMESTAMP AS claimed FROM product_outbox ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String CLAIM_EVENT = "UPDATE product_outbox SET claimed_until = DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP) WHERE id = ?";
+    private static final String RELEASE_EVENT = "UPDATE product_outbox SET claimed_until = NULL WHERE id = ?";
+    private static final String RECORD_FAILURE = "UPDATE product_outbox SET attempts = attempts + 1 WHERE id = ?";
+    private static final String COPY_DEAD_LETTERS = "INSERT INTO product_outbox_dead_letter (id, action, event_type, product_id, name, price, quantity, attempts, created_at) "
+            + "SELECT id, action, event_type, product_id, name, price, quantity, attempts, created_at FROM product_outbox WHERE attempts >= ?";
+    private static final String DELETE_DEAD_LETTERS = "DELETE FROM product_outbox WHERE attempts >= ?";
+    private static final String DELETE_EVENT = "DELETE FROM product_outbox WHERE id = ?";
+    private static final RowMapper<OutboxEvent> OUTBOX_EVENT_ROW_MAPPER = (resultSet, rowNum) -> OutboxEvent.builder()
+            .id(resultSet.getLong("id"))
+            .event(Event.builder()
+                    .action(ActionEnum.valueOf(resultSet.getString("action")))
+                    .eventType(EventTypeEnum.valueOf(resultSet.getString("event_type")))
+                    .id(resultSet.getString("product_id"))
+                    .name(resultSet.getString("name"))
+                    .price(resultSet.getBigDecimal("price"))
+                    .quantity(resultSet.getObject("quantity", Integer.class))
+                    .build())
+            .attempts(resultSet.getInt("attempts"))
+            .claimed(resultSet.getBoolean("claimed"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void saveAll(List<Event> events) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events, events.size(), (preparedStatement, event) -> {
+            preparedStatement.setString(1, event.getAction().name());
+            preparedStatement.setString(2, event.getEventType().name());
+            preparedStatement.setString(3, event.getId());
+            preparedStatement.setString(4, event.getName());
+            preparedStatement.setBigDecimal(5, event.getPrice());
+            preparedStatement.setObject(6, event.getQuantity());
+        });
+    }
+
+    @Override
+    public List<OutboxEvent> findOldest(int limit) {
+        return jdbcTemplate.query(SELECT_OLDEST_EVENTS, OUTBOX_EVENT_ROW_MAPPER, limit);
+    }
+
+    @Override
+    public void claimAll(List<Long> ids, long timeoutMillis) {
+        jdbcTemplate.batchUpdate(CLAIM_EVENT, ids, ids.size(), (preparedStatement, id) -> {
+            preparedStatement.setLong(1, timeoutMillis);
+            preparedStatement.setLong(2, id);
+        });
+    }
+
+    @Override
+    public void releaseAll(List<Long> ids) {
+        jdbcTemplate.batchUpdate(RELEASE_EVENT, ids, ids.size(), (preparedStatement, id) -> preparedStatement.setLong(1, id));
+    }
+
+    @Override
+    public void recordFailures(List<Long> ids) {
+        jdbcTemplate.batchUpdate(RECORD_FAILURE, ids, ids.size(), (preparedStatement, id) -> preparedStatement.setLong(1, id));
+    }
+
+    @Override
+    public int moveToDeadLetter(int maxAttempts) {
+        jdbcTemplate.update(COPY_DEAD_LETTERS, maxAttempts);
+        return jdbcTemplate.update(DELETE_DEAD_LETTERS, maxAttempts);
+    }
+
+    @Override
+    public void deleteAll(List<Long> ids) {
+        jdbcTemplate.batchUpdate(DELETE_EVENT, ids, ids.size(), (preparedStatement, id) -> preparedStatement.setLong(1, id));
+    }
+}
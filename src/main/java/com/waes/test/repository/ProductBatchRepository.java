@@ -0,0 +1,33 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.entity.ProductEntity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interface to handle set-based batch operations on {@link ProductEntity}, sent to the database as one statement per chunk.
+ *
+ * @author jonathanadepaula
+ */
+public interface ProductBatchRepository {
+
+    /**
+     * Updates the name, price and quantity of each given product by its id. Each product must be given once.
+     *
+     * @param productEntityList {@link List<ProductEntity>}
+     * @param batchSize         number of products sent to the database per statement
+     * @return the number of products updated
+     */
+    int batchUpdate(List<ProductEntity> productEntityList, int batchSize);
+
+    /**
+     * Deletes each given product by its id.
+     *
+     * @param ids
+     * @param batchSize number of products sent to the database per statement
+     * @return the number of products deleted
+     */
+    int batchDelete(Collection<UUID> ids, int batchSize);
+}
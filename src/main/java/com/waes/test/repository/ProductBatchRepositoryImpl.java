@@ -0,0 +1,62 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.entity.ProductEntity;
+import com.waes.test.util.UuidUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC implementation of {@link ProductBatchRepository}, picked up by Spring Data as a fragment of {@link ProductRepository}.
+ * Each chunk is written by a single statement, instead of one statement per product.
+ *
+ * @author jonathanadepaula
+ */
+@RequiredArgsConstructor
+public class ProductBatchRepositoryImpl implements ProductBatchRepository {
+
+    // The rows are expanded to (?, ?, ?, ?), ... and read through the C1 to C4 columns H2 names the VALUES table with.
+    private static final String UPDATE_PRODUCTS = "MERGE INTO product USING "
+            + "(SELECT C1 AS id, C2 AS name, C3 AS price, C4 AS quantity FROM (VALUES :rows)) AS updated ON product.id = updated.id "
+            + "WHEN MATCHED THEN UPDATE SET name = updated.name, price = updated.price, quantity = updated.quantity, version = product.version + 1";
+    private static final String DELETE_PRODUCTS = "DELETE FROM product WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchUpdate(List<ProductEntity> productEntityList, int batchSize) {
+        int updated = 0;
+        for (List<ProductEntity> chunk : chunksOf(productEntityList, batchSize)) {
+            List<Object[]> rows = chunk.stream()
+                    .map(productEntity -> new Object[]{UuidUtils.toBytes(productEntity.getId()), productEntity.getName(),
+                            productEntity.getPrice(), productEntity.getQuantity()})
+                    .collect(Collectors.toList());
+            updated += jdbcTemplate.update(UPDATE_PRODUCTS, new MapSqlParameterSource("rows", rows));
+        }
+        return updated;
+    }
+
+    @Override
+    public int batchDelete(Collection<UUID> ids, int batchSize) {
+        int deleted = 0;
+        for (List<UUID> chunk : chunksOf(new ArrayList<>(ids), batchSize)) {
+            List<byte[]> binaryIds = chunk.stream().map(UuidUtils::toBytes).collect(Collectors.toList());
+            deleted += jdbcTemplate.update(DELETE_PRODUCTS, new MapSqlParameterSource("ids", binaryIds));
+        }
+        return deleted;
+    }
+
+    private <T> List<List<T>> chunksOf(List<T> items, int chunkSize) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(from + chunkSize, items.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,42 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.ProductChangeDTO;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interface to handle the change feed of products. Only the latest change of each product is kept, deletes are kept as tombstones.
+ *
+ * @author jonathanadepaula
+ */
+public interface ProductChangeRepository {
+
+    /**
+     * Records a change of each given product with the next sequences, replacing their previous changes.
+     * Within a transaction they are written right before it commits, so the changes become visible in the order of their sequences.
+     *
+     * @param ids
+     * @param deleted whether the products were deleted
+     */
+    void recordChanges(List<UUID> ids, boolean deleted);
+
+    /**
+     * Query to get the changes after the given sequence, ordered by sequence, with the current data of the products not deleted.
+     *
+     * @param since sequence of the last change already seen
+     * @param limit maximum number of changes
+     * @return {@link List<ProductChangeDTO>}
+     */
+    @Transactional(readOnly = true)
+    List<ProductChangeDTO> findChanges(long since, int limit);
+
+    /**
+     * Query to get the sequence of the last recorded change.
+     *
+     * @return long
+     */
+    @Transactional(readOnly = true)
+    long findLastSequence();
+}
@@ -0,0 +1,152 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.ProductChangeDTO;
+import com.waes.test.model.ProductDTO;
+import com.waes.test.util.UuidUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link ProductChangeRepository}, picked up by Spring Data as a fragment of {@link ProductRepository}.
+ * The changes of a transaction are only written right before it commits, taking their sequences from the sequence row, which stays
+ * locked just until the commit. So the sequences become visible in their order, and a reader never skips a change committed late.
+ *
+ * @author jonathanadepaula
+ */
+public class ProductChangeRepositoryImpl implements ProductChangeRepository {
+
+    private static final String INCREMENT_SEQUENCE = "UPDATE product_change_sequence SET seq = seq + ? WHERE id = 1";
+    private static final String SELECT_SEQUENCE = "SELECT seq FROM product_change_sequence WHERE id = 1";
+    private static final String MERGE_CHANGE = "MERGE INTO product_change (product_id, seq, deleted) KEY (product_id) VALUES (?, ?, ?)";
+    private static final String SELECT_CHANGES = "SELECT c.seq, c.product_id, c.deleted, p.name, p.price, p.quantity, p.version "
+            + "FROM product_change c LEFT JOIN product p ON p.id = c.product_id WHERE c.seq > ? ORDER BY c.seq LIMIT ?";
+    private static final RowMapper<ProductChangeDTO> PRODUCT_CHANGE_DTO_ROW_MAPPER = (resultSet, rowNum) -> {
+        String id = UuidUtils.fromBytes(resultSet.getBytes("product_id")).toString();
+        ProductChangeDTO productChangeDTO = new ProductChangeDTO()
+                .seq(resultSet.getLong("seq"))
+                .id(id)
+                .deleted(resultSet.getBoolean("deleted"));
+        if (!productChangeDTO.isDeleted()) {
+            productChangeDTO.product(new ProductDTO()
+                    .id(id)
+                    .name(resultSet.getString("name"))
+                    .price(resultSet.getBigDecimal("price"))
+                    .quantity(resultSet.getObject("quantity", Integer.class))
+                    .version(resultSet.getLong("version")));
+        }
+        return productChangeDTO;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public ProductChangeRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void recordChanges(List<UUID> ids, boolean deleted) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeChanges(changesOf(new LinkedHashMap<>(), ids, deleted));
+            return;
+        }
+        PendingChanges pendingChanges = (PendingChanges) TransactionSynchronizationManager.getResource(PendingChanges.class);
+        if (Objects.isNull(pendingChanges)) {
+            pendingChanges = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(PendingChanges.class, pendingChanges);
+            TransactionSynchronizationManager.registerSynchronization(pendingChanges);
+        }
+        changesOf(pendingChanges.changes, ids, deleted);
+    }
+
+    @Override
+    public List<ProductChangeDTO> findChanges(long since, int limit) {
+        return jdbcTemplate.query(SELECT_CHANGES, PRODUCT_CHANGE_DTO_ROW_MAPPER, since, limit);
+    }
+
+    @Override
+    public long findLastSequence() {
+        return jdbcTemplate.queryForObject(SELECT_SEQUENCE, Long.class);
+    }
+
+    private Map<UUID, Boolean> changesOf(Map<UUID, Boolean> changes, List<UUID> ids, boolean deleted) {
+        // Only the last change of a product is kept, on the position it was last changed.
+        ids.forEach(id -> {
+            changes.remove(id);
+            changes.put(id, deleted);
+        });
+        return changes;
+    }
+
+    /**
+     * Writes the given changes with the next sequences. The sequence row stays locked until the end of the transaction.
+     *
+     * @param changes whether each product was deleted, in the order they changed
+     */
+    private void writeChanges(Map<UUID, Boolean> changes) {
+        List<Map.Entry<UUID, Boolean>> changeList = new ArrayList<>(changes.entrySet());
+        jdbcTemplate.update(INCREMENT_SEQUENCE, changeList.size());
+        long firstSeq = jdbcTemplate.queryForObject(SELECT_SEQUENCE, Long.class) - changeList.size() + 1;
+        jdbcTemplate.batchUpdate(MERGE_CHANGE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+                preparedStatement.setBytes(1, UuidUtils.toBytes(changeList.get(index).getKey()));
+                preparedStatement.setLong(2, firstSeq + index);
+                preparedStatement.setBoolean(3, changeList.get(index).getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return changeList.size();
+            }
+        });
+    }
+
+    /**
+     * Changes recorded on the current transaction, written right before it commits. They are unbound while the transaction is
+     * suspended, so an inner transaction records its own.
+     */
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final Map<UUID, Boolean> changes = new LinkedHashMap<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(PendingChanges.class);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(PendingChanges.class, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // The pending writes are flushed first, so the sequence row is only locked for the changes and the commit.
+            entityManager.flush();
+            writeChanges(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PendingChanges.class);
+        }
+    }
+}
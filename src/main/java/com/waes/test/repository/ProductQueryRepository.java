@@ -0,0 +1,76 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.filter.ProductFilter;
+import com.waes.test.model.filter.ProductSortEnum;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Interface to handle the read queries on products that are mapped straight into {@link ProductDTO}, without hydrating entities.
+ * They run on read-only transactions.
+ *
+ * @author jonathanadepaula
+ */
+@Transactional(readOnly = true)
+public interface ProductQueryRepository {
+
+    /**
+     * Cached query to get a product by a given id. Missing products are not cached, they are handled by the {@link com.waes.test.cache.ProductIdFilter}.
+     *
+     * @param id
+     * @return {@link Optional<ProductDTO>}
+     */
+    @Cacheable(value = "product", unless = "#result == null")
+    Optional<ProductDTO> findProductById(UUID id);
+
+    /**
+     * Query to get all the products of the given ids at once. Products not found are left out.
+     *
+     * @param ids
+     * @return {@link List<ProductDTO>}
+     */
+    List<ProductDTO> findProducts(Collection<UUID> ids);
+
+    /**
+     * Keyset query to get a page of products ordered by id, matching the given filter.
+     * Only the bounds present on the filter are added to the query.
+     *
+     * @param productFilter {@link ProductFilter}
+     * @param lastId        last id of the previous page, or null for the first page
+     * @param limit         maximum number of products
+     * @return {@link List<ProductDTO>}
+     */
+    List<ProductDTO> findPage(ProductFilter productFilter, UUID lastId, int limit);
+
+    /**
+     * Streams all products matching the given filter to the given consumer, in the given order with ties ordered by id,
+     * fetching them from the database in chunks of the JDBC fetch size.
+     *
+     * @param productFilter {@link ProductFilter}
+     * @param sort          {@link ProductSortEnum}
+     * @param consumer      {@link Consumer<ProductDTO>}
+     */
+    void exportAll(ProductFilter productFilter, ProductSortEnum sort, Consumer<ProductDTO> consumer);
+
+    /**
+     * Query to get the products written most recently, following the change feed backwards.
+     *
+     * @param limit maximum number of products
+     * @return {@link List<ProductDTO>}
+     */
+    List<ProductDTO> findLastWritten(int limit);
+
+    /**
+     * Streams the ids of all products to the given consumer, fetching them from the database in chunks of the JDBC fetch size.
+     *
+     * @param consumer {@link Consumer<UUID>}
+     */
+    void exportAllIds(Consumer<UUID> consumer);
+}
@@ -0,0 +1,132 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.filter.ProductFilter;
+import com.waes.test.model.filter.ProductSortEnum;
+import com.waes.test.util.UuidUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC implementation of {@link ProductQueryRepository}, picked up by Spring Data as a fragment of {@link ProductRepository}.
+ *
+ * @author jonathanadepaula
+ */
+@RequiredArgsConstructor
+public class ProductQueryRepositoryImpl implements ProductQueryRepository {
+
+    private static final String SELECT_PRODUCT = "SELECT id, name, price, quantity, version FROM product";
+    private static final String SELECT_IDS = "SELECT id FROM product";
+    private static final String SELECT_LAST_WRITTEN = "SELECT p.id, p.name, p.price, p.quantity, p.version "
+            + "FROM product_change c JOIN product p ON p.id = c.product_id WHERE c.deleted = FALSE ORDER BY c.seq DESC LIMIT :limit";
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final RowMapper<ProductDTO> PRODUCT_DTO_ROW_MAPPER = (resultSet, rowNum) -> new ProductDTO()
+            .id(UuidUtils.fromBytes(resultSet.getBytes("id")).toString())
+            .name(resultSet.getString("name"))
+            .price(resultSet.getBigDecimal("price"))
+            .quantity(resultSet.getObject("quantity", Integer.class))
+            .version(resultSet.getLong("version"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<ProductDTO> findProductById(UUID id) {
+        return jdbcTemplate.query(SELECT_PRODUCT + " WHERE id = :id", new MapSqlParameterSource("id", UuidUtils.toBytes(id)), PRODUCT_DTO_ROW_MAPPER)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<ProductDTO> findProducts(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<byte[]> binaryIds = ids.stream().map(UuidUtils::toBytes).collect(Collectors.toList());
+        return jdbcTemplate.query(SELECT_PRODUCT + " WHERE id IN (:ids)", new MapSqlParameterSource("ids", binaryIds), PRODUCT_DTO_ROW_MAPPER);
+    }
+
+    @Override
+    public List<ProductDTO> findPage(ProductFilter productFilter, UUID lastId, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("limit", limit);
+        List<String> conditions = new ArrayList<>();
+        if (Objects.nonNull(lastId)) {
+            conditions.add("id > :lastId");
+            parameters.addValue("lastId", UuidUtils.toBytes(lastId));
+        }
+        String sql = selectProducts(productFilter, conditions, parameters) + " ORDER BY id LIMIT :limit";
+        return jdbcTemplate.query(sql, parameters, PRODUCT_DTO_ROW_MAPPER);
+    }
+
+    @Override
+    public void exportAll(ProductFilter productFilter, ProductSortEnum sort, Consumer<ProductDTO> consumer) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        // The sort column comes from the enum, never from the request, so it is safe to append.
+        String sql = selectProducts(productFilter, new ArrayList<>(), parameters)
+                + (ProductSortEnum.ID == sort ? " ORDER BY id" : String.format(" ORDER BY %s, id", sort.getColumn()));
+        ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+        PreparedStatementCreator preparedStatementCreator = new PreparedStatementCreatorFactory(
+                NamedParameterUtils.substituteNamedParameters(parsedSql, parameters),
+                NamedParameterUtils.buildSqlParameterList(parsedSql, parameters))
+                .newPreparedStatementCreator(NamedParameterUtils.buildValueArray(parsedSql, parameters, null));
+        jdbcTemplate.getJdbcOperations().query(connection -> {
+            PreparedStatement preparedStatement = preparedStatementCreator.createPreparedStatement(connection);
+            preparedStatement.setFetchSize(EXPORT_FETCH_SIZE);
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(PRODUCT_DTO_ROW_MAPPER.mapRow(resultSet, resultSet.getRow())));
+    }
+
+    @Override
+    public List<ProductDTO> findLastWritten(int limit) {
+        return jdbcTemplate.query(SELECT_LAST_WRITTEN, new MapSqlParameterSource("limit", limit), PRODUCT_DTO_ROW_MAPPER);
+    }
+
+    @Override
+    public void exportAllIds(Consumer<UUID> consumer) {
+        jdbcTemplate.getJdbcOperations().query(connection -> {
+            PreparedStatement preparedStatement = connection.prepareStatement(SELECT_IDS);
+            preparedStatement.setFetchSize(EXPORT_FETCH_SIZE);
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(UuidUtils.fromBytes(resultSet.getBytes("id"))));
+    }
+
+    /**
+     * Builds the select of the products matching the given conditions plus the bounds present on the filter.
+     *
+     * @param productFilter {@link ProductFilter}
+     * @param conditions    conditions already added, the ones of the filter are appended
+     * @param parameters    parameters of the conditions, the ones of the filter are added
+     * @return the select, without ordering
+     */
+    private String selectProducts(ProductFilter productFilter, List<String> conditions, MapSqlParameterSource parameters) {
+        addCondition(conditions, parameters, "price >= :priceMin", "priceMin", productFilter.getPriceMin());
+        addCondition(conditions, parameters, "price <= :priceMax", "priceMax", productFilter.getPriceMax());
+        addCondition(conditions, parameters, "quantity >= :quantityMin", "quantityMin", productFilter.getQuantityMin());
+        addCondition(conditions, parameters, "quantity <= :quantityMax", "quantityMax", productFilter.getQuantityMax());
+        return conditions.isEmpty() ? SELECT_PRODUCT : SELECT_PRODUCT + " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private void addCondition(List<String> conditions, MapSqlParameterSource parameters, String condition, String name, Object value) {
+        if (Objects.nonNull(value)) {
+            conditions.add(condition);
+            parameters.addValue(name, value);
+        }
+    }
+}
@@ -2,19 +2,23 @@ package com.waes.test.repository;
 
 import com.waes.test.model.entity.ProductEntity;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Interface to handle the Crud Opeations on {@link ProductEntity}.
- * extends {@link CrudRepository}
+ * extends {@link CrudRepository}, {@link ProductBatchRepository}, {@link ProductQueryRepository}, {@link ProductChangeRepository}
+ * and {@link ProductStatsRepository}
  *
  * @author jonathanadepaula
  */
 @CacheConfig(cacheNames = "productsCache")
-public interface ProductRepository extends CrudRepository<ProductEntity, String> {
+public interface ProductRepository extends CrudRepository<ProductEntity, UUID>, ProductBatchRepository, ProductQueryRepository,
+        ProductChangeRepository, ProductStatsRepository {
 
     /**
      * Counts how many Products are in the table with the given id.
@@ -22,15 +26,48 @@ public interface ProductRepository extends CrudRepository<ProductEntity, String>
      * @param id
      * @return int
      */
-    int countById(String id);
+    int countById(UUID id);
 
     /**
-     * Cached query to get a product by a given id.
+     * Updates all the fields of a product and increments its version in a single statement.
+     *
+     * @param product {@link ProductEntity} with the id and the new values
+     * @return int number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE ProductEntity p SET p.name = :#{#product.name}, p.price = :#{#product.price}, p.quantity = :#{#product.quantity}, "
+            + "p.version = p.version + 1 WHERE p.id = :#{#product.id}")
+    int updateProduct(@Param("product") ProductEntity product);
+
+    /**
+     * Updates all the fields of a product and increments its version in a single statement, only if it is still on the given version.
+     *
+     * @param product {@link ProductEntity} with the id, the expected version and the new values
+     * @return int number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE ProductEntity p SET p.name = :#{#product.name}, p.price = :#{#product.price}, p.quantity = :#{#product.quantity}, "
+            + "p.version = p.version + 1 WHERE p.id = :#{#product.id} AND p.version = :#{#product.version}")
+    int updateProductIfVersionMatches(@Param("product") ProductEntity product);
+
+    /**
+     * Deletes a product by id in a single statement.
+     *
+     * @param id
+     * @return int number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM ProductEntity p WHERE p.id = :id")
+    int deleteProduct(@Param("id") UUID id);
+
+    /**
+     * Deletes a product by id in a single statement, only if it is still on the given version.
      *
      * @param id
-     * @return {@link Optional<ProductEntity>}
+     * @param version
+     * @return int number of deleted rows
      */
-    @Override
-    @Cacheable(value = "product")
-    Optional<ProductEntity> findById(String id);
+    @Modifying
+    @Query("DELETE FROM ProductEntity p WHERE p.id = :id AND p.version = :version")
+    int deleteProductIfVersionMatches(@Param("id") UUID id, @Param("version") Long version);
 }
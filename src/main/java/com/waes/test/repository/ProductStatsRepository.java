@@ -0,0 +1,49 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductStatsDTO;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interface to handle the catalogue statistics, kept on striped rows updated with the delta of each write.
+ *
+ * @author jonathanadepaula
+ */
+public interface ProductStatsRepository {
+
+    /**
+     * Query to get the price and quantity of the given products, locking them until the end of the current transaction,
+     * so they can not change between being read and being written.
+     *
+     * @param ids
+     * @return {@link List<ProductDTO>} with the id, price and quantity of the products found
+     */
+    List<ProductDTO> findForUpdate(Collection<UUID> ids);
+
+    /**
+     * Adds the given deltas to one of the stripes of the statistics.
+     *
+     * @param productCount
+     * @param totalUnits
+     * @param totalValue
+     */
+    void addToStats(long productCount, long totalUnits, BigDecimal totalValue);
+
+    /**
+     * Query to get the statistics, summing their stripes.
+     *
+     * @return {@link ProductStatsDTO}
+     */
+    @Transactional(readOnly = true)
+    ProductStatsDTO findStats();
+
+    /**
+     * Recomputes the statistics from the product table.
+     */
+    void rebuildStats();
+}
@@ -0,0 +1,73 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductStatsDTO;
+import com.waes.test.util.UuidUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC implementation of {@link ProductStatsRepository}, picked up by Spring Data as a fragment of {@link ProductRepository}.
+ * Each write adds its delta to a random stripe, so concurrent writes rarely wait on the same row, and the stripes are summed on read.
+ *
+ * @author jonathanadepaula
+ */
+@RequiredArgsConstructor
+public class ProductStatsRepositoryImpl implements ProductStatsRepository {
+
+    private static final String SELECT_PRODUCTS_FOR_UPDATE = "SELECT id, price, quantity FROM product WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+    // Number of rows the statistics are striped over, created by the migrations with ids from 1.
+    private static final int STATS_STRIPES = 16;
+    private static final String ADD_TO_STATS = "UPDATE product_stats SET product_count = product_count + :productCount, "
+            + "total_units = total_units + :totalUnits, total_value = total_value + :totalValue WHERE id = :stripe";
+    private static final String SELECT_STATS = "SELECT COALESCE(SUM(product_count), 0) AS product_count, "
+            + "COALESCE(SUM(total_units), 0) AS total_units, COALESCE(SUM(total_value), 0) AS total_value FROM product_stats";
+    private static final String REBUILD_STATS = "UPDATE product_stats SET "
+            + "product_count = CASE WHEN id = 1 THEN (SELECT COUNT(*) FROM product) ELSE 0 END, "
+            + "total_units = CASE WHEN id = 1 THEN (SELECT COALESCE(SUM(quantity), 0) FROM product) ELSE 0 END, "
+            + "total_value = CASE WHEN id = 1 THEN (SELECT COALESCE(SUM(price * quantity), 0) FROM product) ELSE 0 END";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ProductDTO> findForUpdate(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<byte[]> binaryIds = ids.stream().map(UuidUtils::toBytes).collect(Collectors.toList());
+        return jdbcTemplate.query(SELECT_PRODUCTS_FOR_UPDATE, new MapSqlParameterSource("ids", binaryIds), (resultSet, rowNum) -> new ProductDTO()
+                .id(UuidUtils.fromBytes(resultSet.getBytes("id")).toString())
+                .price(resultSet.getBigDecimal("price"))
+                .quantity(resultSet.getObject("quantity", Integer.class)));
+    }
+
+    @Override
+    public void addToStats(long productCount, long totalUnits, BigDecimal totalValue) {
+        jdbcTemplate.update(ADD_TO_STATS, new MapSqlParameterSource("productCount", productCount)
+                .addValue("totalUnits", totalUnits)
+                .addValue("totalValue", totalValue)
+                .addValue("stripe", ThreadLocalRandom.current().nextInt(STATS_STRIPES) + 1));
+    }
+
+    @Override
+    public ProductStatsDTO findStats() {
+        return jdbcTemplate.queryForObject(SELECT_STATS, Collections.emptyMap(), (resultSet, rowNum) -> new ProductStatsDTO()
+                .productCount(resultSet.getLong("product_count"))
+                .totalUnits(resultSet.getLong("total_units"))
+                .totalValue(resultSet.getBigDecimal("total_value")));
+    }
+
+    @Override
+    public void rebuildStats() {
+        jdbcTemplate.update(REBUILD_STATS, Collections.emptyMap());
+    }
+}
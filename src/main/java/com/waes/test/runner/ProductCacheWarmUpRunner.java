@@ -0,0 +1,32 @@
+package com.waes.test.runner;
+
+import com.waes.test.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ApplicationRunner} which loads the most recently written products into the product cache on startup.
+ * Runners complete before the application is marked as ready, so traffic only arrives once the cache is warm.
+ *
+ * @author jonathanadepaula
+ */
+@Component
+@ConditionalOnProperty(value = "products.cache.warm.up.on.startup", havingValue = "true")
+public class ProductCacheWarmUpRunner implements ApplicationRunner {
+
+    private final ProductService productService;
+    private final int warmUpSize;
+
+    public ProductCacheWarmUpRunner(ProductService productService, @Value("${products.cache.warm.up.size}") int warmUpSize) {
+        this.productService = productService;
+        this.warmUpSize = warmUpSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        productService.warmUpProductCache(warmUpSize);
+    }
+}
@@ -0,0 +1,24 @@
+package com.waes.test.runner;
+
+import com.waes.test.cache.ProductIdFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ApplicationRunner} which builds the filter of existing product ids from the product table on startup.
+ *
+ * @author jonathanadepaula
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductIdFilterRunner implements ApplicationRunner {
+
+    private final ProductIdFilter productIdFilter;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        productIdFilter.rebuild();
+    }
+}
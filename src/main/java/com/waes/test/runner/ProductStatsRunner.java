@@ -0,0 +1,27 @@
+package com.waes.test.runner;
+
+import com.waes.test.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ApplicationRunner} which rebuilds the catalogue statistics from the product table on startup,
+ * discarding any drift of the incrementally maintained ones.
+ *
+ * @author jonathanadepaula
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "products.stats.rebuild.on.startup", havingValue = "true")
+public class ProductStatsRunner implements ApplicationRunner {
+
+    private final ProductService productService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        productService.rebuildProductStats();
+    }
+}
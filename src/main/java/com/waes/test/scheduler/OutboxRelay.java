@@ -0,0 +1,146 @@
+package com.waes.test.scheduler;
+
+import com.waes.test.model.event.OutboxEvent;
+import com.waes.test.observer.impl.SupplyChainPropagationObserver;
+import com.waes.test.repository.OutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@link Component} class to drain the outbox, relaying its Events to the propagate queue in batches.
+ * An Event is only removed from the outbox once SQS accepted it and every Event before it, so the delivery survives SQS outages.
+ * The Events are claimed on a short transaction and published outside of it, so no row stays locked while SQS answers. An Event
+ * rejected by SQS for the maximum attempts is moved to the dead letter table, so it does not block the ones after it.
+ *
+ * @author jonathanadepaula
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "sqs.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final SupplyChainPropagationObserver sqsPropagationObserver;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long claimTimeout;
+    private final int maxAttempts;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       SupplyChainPropagationObserver sqsPropagationObserver,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${outbox.relay.batch.size}") int batchSize,
+                       @Value("${outbox.relay.claim.timeout}") long claimTimeout,
+                       @Value("${outbox.relay.max.attempts}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.sqsPropagationObserver = sqsPropagationObserver;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.claimTimeout = claimTimeout;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Relays the outbox until it is empty or SQS stops accepting Events.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.delay}")
+    public void relay() {
+        int relayed;
+        do {
+            List<OutboxEvent> outboxEvents = transactionTemplate.execute(status -> claimBatch());
+            relayed = Objects.isNull(outboxEvents) || outboxEvents.isEmpty() ? 0 : relayBatch(outboxEvents);
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * Claims the oldest Events of the outbox. Nothing is claimed while the oldest one is claimed by another relay, which keeps the
+     * order, and the claim of a relay that stopped expires after the claim timeout.
+     *
+     * @return {@link List<OutboxEvent>} claimed, in the order they were stored
+     */
+    private List<OutboxEvent> claimBatch() {
+        List<OutboxEvent> outboxEvents = outboxRepository.findOldest(batchSize);
+        if (outboxEvents.isEmpty() || outboxEvents.get(0).isClaimed()) {
+            return Collections.emptyList();
+        }
+        outboxRepository.claimAll(idsOf(outboxEvents), claimTimeout);
+        return outboxEvents;
+    }
+
+    /**
+     * Publishes the claimed Events, stopping on the first SQS request with failures. Events accepted by SQS after a failed one are
+     * kept with it and published again, so the delivery is at least once.
+     *
+     * @param outboxEvents {@link List<OutboxEvent>} claimed
+     * @return the number of Events relayed
+     */
+    private int relayBatch(List<OutboxEvent> outboxEvents) {
+        int relayed = 0;
+        List<Long> failedIds = new ArrayList<>();
+        while (relayed < outboxEvents.size()) {
+            List<OutboxEvent> chunk = outboxEvents.subList(relayed, Math.min(relayed + SupplyChainPropagationObserver.MAX_BATCH_ENTRIES, outboxEvents.size()));
+            Set<Long> failedChunkIds;
+            try {
+                failedChunkIds = new HashSet<>(idsOf(sqsPropagationObserver.sendEvents(chunk)));
+            } catch (RuntimeException e) {
+                log.warn("SQS could not be reached, {} events will be retried on the next run.", outboxEvents.size() - relayed, e);
+                break;
+            }
+            int accepted = 0;
+            while (accepted < chunk.size() && !failedChunkIds.contains(chunk.get(accepted).getId())) {
+                accepted++;
+            }
+            relayed += accepted;
+            if (!failedChunkIds.isEmpty()) {
+                chunk.stream().map(OutboxEvent::getId).filter(failedChunkIds::contains).forEach(failedIds::add);
+                log.warn("{} events were rejected by SQS, they and the following ones will be retried on the next run.", failedChunkIds.size());
+                break;
+            }
+        }
+        int relayedCount = relayed;
+        Integer deadLettered = transactionTemplate.execute(status -> completeBatch(outboxEvents, relayedCount, failedIds));
+        if (Objects.nonNull(deadLettered) && deadLettered > 0) {
+            log.error("{} events were rejected by SQS {} times and moved to the dead letter table.", deadLettered, maxAttempts);
+        }
+        return relayed;
+    }
+
+    /**
+     * Removes the relayed Events, which are the first ones of the batch, and releases the rest. The rejected ones count an attempt,
+     * and are moved to the dead letter table once they reach the maximum attempts.
+     *
+     * @param outboxEvents {@link List<OutboxEvent>} claimed
+     * @param relayed      number of Events relayed
+     * @param failedIds    ids of the Events rejected by SQS
+     * @return the number of Events moved to the dead letter table
+     */
+    private int completeBatch(List<OutboxEvent> outboxEvents, int relayed, List<Long> failedIds) {
+        if (relayed > 0) {
+            outboxRepository.deleteAll(idsOf(outboxEvents.subList(0, relayed)));
+        }
+        if (relayed < outboxEvents.size()) {
+            outboxRepository.releaseAll(idsOf(outboxEvents.subList(relayed, outboxEvents.size())));
+        }
+        if (failedIds.isEmpty()) {
+            return 0;
+        }
+        outboxRepository.recordFailures(failedIds);
+        return outboxRepository.moveToDeadLetter(maxAttempts);
+    }
+
+    private List<Long> idsOf(List<OutboxEvent> outboxEvents) {
+        return outboxEvents.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+    }
+}
@@ -1,10 +1,20 @@
 package com.waes.test.service;
 
+import com.waes.test.model.BatchResultDTO;
+import com.waes.test.model.BatchUpdateProductDTO;
 import com.waes.test.model.NewProductDTO;
+import com.waes.test.model.ProductChangesDTO;
+import com.waes.test.model.ProductStatsDTO;
 import com.waes.test.model.ProductDTO;
 import com.waes.test.model.ProductsDTO;
 import com.waes.test.model.UpdateProductDTO;
+import com.waes.test.model.filter.ProductFilter;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Interface to define the contract of all operations with Product.
@@ -14,21 +24,84 @@ import org.springframework.http.ResponseEntity;
 public interface ProductService {
 
     /**
-     * Get a {@link ProductsDTO} which bundles a {@link java.util.List<ProductDTO>}.
+     * Get a {@link ProductsDTO} which bundles a page of {@link java.util.List<ProductDTO>}.
      *
-     * @param downstream which indicates if the query should be made on an downstream service
+     * @param limit         maximum number of products on the page
+     * @param cursor        continuation token returned on the previous page
+     * @param productFilter {@link ProductFilter} applied on local data
      * @return {@link ResponseEntity <ProductsDTO>}
      */
-    ProductsDTO getProducts(Boolean downstream);
+    ProductsDTO getProducts(Integer limit, String cursor, ProductFilter productFilter);
+
+    /**
+     * Get a {@link ProductsDTO} from the downstream service, without holding the calling thread while it answers.
+     *
+     * @return {@link CompletableFuture<ProductsDTO>}
+     */
+    CompletableFuture<ProductsDTO> getDownstreamProducts();
+
+    /**
+     * Exports all the {@link ProductDTO} matching the given filter one by one to the given consumer, in the given order,
+     * without holding the whole catalogue in memory.
+     *
+     * @param productFilter {@link ProductFilter}
+     * @param sort          field the products are ordered by, id when null
+     * @param consumer      {@link Consumer<ProductDTO>}
+     */
+    void exportProducts(ProductFilter productFilter, String sort, Consumer<ProductDTO> consumer);
+
+    /**
+     * Get a {@link ProductChangesDTO} which bundles a page of the latest change of each product changed after the given sequence.
+     *
+     * @param since sequence returned as next on the previous page
+     * @param limit maximum number of changes on the page
+     * @return {@link ProductChangesDTO}
+     */
+    ProductChangesDTO getProductChanges(Long since, Integer limit);
+
+    /**
+     * Get the {@link ProductStatsDTO} of the catalogue, kept up to date on each write instead of computed from all the products.
+     *
+     * @return {@link ProductStatsDTO}
+     */
+    ProductStatsDTO getProductStats();
+
+    /**
+     * Recomputes the statistics of the catalogue from all the products.
+     */
+    void rebuildProductStats();
+
+    /**
+     * Loads the most recently written products into the product cache, so they are not missed right after a deploy.
+     *
+     * @param size maximum number of products loaded
+     */
+    void warmUpProductCache(int size);
+
+    /**
+     * Gets a {@link ProductsDTO} which bundles the products of all the given ids, in the order requested. Products not found are
+     * left out.
+     *
+     * @param productIds
+     * @return {@link ProductsDTO}
+     */
+    ProductsDTO lookupProducts(List<String> productIds);
 
     /**
      * Gets a {@link ProductDTO}
      *
      * @param productId
-     * @param downstream which indicates if the query should be made on an downstream service
      * @return {@link ResponseEntity<ProductDTO>}
      */
-    ProductDTO getProduct(String productId, Boolean downstream);
+    ProductDTO getProduct(String productId);
+
+    /**
+     * Gets a {@link ProductDTO} from the downstream service, without holding the calling thread while it answers.
+     *
+     * @param productId
+     * @return {@link CompletableFuture<ProductDTO>}
+     */
+    CompletableFuture<ProductDTO> getDownstreamProduct(String productId);
 
     /**
      * Persists a {@link ProductDTO}.
@@ -39,19 +112,67 @@ public interface ProductService {
     ProductDTO saveProduct(NewProductDTO productEntity);
 
     /**
-     * Updates an existing {@link ProductDTO}.
+     * Persists a batch of {@link ProductDTO} in a single transaction.
+     *
+     * @param newProductDTOList {@link List<NewProductDTO>}
+     * @return {@link ProductsDTO}
+     */
+    ProductsDTO saveProducts(List<NewProductDTO> newProductDTOList);
+
+    /**
+     * Updates an existing {@link ProductDTO}, regardless of its current version.
      *
      * @param productEntity {@link UpdateProductDTO}
      * @param productId
      * @return {@link ResponseEntity<ProductDTO>}
      */
-    ProductDTO updateProduct(UpdateProductDTO productEntity, String productId);
+    @Transactional
+    default ProductDTO updateProduct(UpdateProductDTO productEntity, String productId) {
+        return updateProduct(productEntity, productId, null);
+    }
+
+    /**
+     * Updates an existing {@link ProductDTO}. When an expected version is given, the update only happens if the product is still on it.
+     *
+     * @param productEntity   {@link UpdateProductDTO}
+     * @param productId
+     * @param expectedVersion version taken from the If-Match header, or null to update unconditionally
+     * @return {@link ResponseEntity<ProductDTO>}
+     */
+    ProductDTO updateProduct(UpdateProductDTO productEntity, String productId, Long expectedVersion);
 
     /**
-     * Deletes a {@link ProductDTO}.
+     * Updates a batch of existing {@link ProductDTO} in a single transaction.
+     *
+     * @param batchUpdateProductDTOList {@link List<BatchUpdateProductDTO>}
+     * @return {@link BatchResultDTO} with the outcome of each product
+     */
+    BatchResultDTO updateProducts(List<BatchUpdateProductDTO> batchUpdateProductDTOList);
+
+    /**
+     * Deletes a {@link ProductDTO}, regardless of its current version.
      *
      * @param productId
      * @return {@link ResponseEntity<Void>}
      */
-    void deleteProduct(String productId);
+    @Transactional
+    default void deleteProduct(String productId) {
+        deleteProduct(productId, null);
+    }
+
+    /**
+     * Deletes a {@link ProductDTO}. When an expected version is given, the delete only happens if the product is still on it.
+     *
+     * @param productId
+     * @param expectedVersion version taken from the If-Match header, or null to delete unconditionally
+     */
+    void deleteProduct(String productId, Long expectedVersion);
+
+    /**
+     * Deletes a batch of {@link ProductDTO} in a single transaction.
+     *
+     * @param productIds
+     * @return {@link BatchResultDTO} with the outcome of each product
+     */
+    BatchResultDTO deleteProducts(List<String> productIds);
 }
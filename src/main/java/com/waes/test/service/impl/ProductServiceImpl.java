@@ -1,27 +1,61 @@
 package com.waes.test.service.impl;
 
+import com.waes.test.cache.ProductCache;
+import com.waes.test.cache.ProductIdFilter;
+import com.waes.test.datasource.ReadYourWritesContext;
 import com.waes.test.exception.BadRequestException;
+import com.waes.test.exception.PreconditionFailedException;
 import com.waes.test.integration.SupplyChainIntegration;
+import com.waes.test.model.BatchResultDTO;
+import com.waes.test.model.BatchResultItemDTO;
+import com.waes.test.model.BatchUpdateProductDTO;
 import com.waes.test.model.NewProductDTO;
+import com.waes.test.model.ProductChangeDTO;
+import com.waes.test.model.ProductChangesDTO;
 import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductStatsDTO;
 import com.waes.test.model.ProductsDTO;
 import com.waes.test.model.UpdateProductDTO;
 import com.waes.test.model.entity.ProductEntity;
 import com.waes.test.model.event.ActionEnum;
 import com.waes.test.model.event.EventTypeEnum;
+import com.waes.test.model.filter.ProductFilter;
+import com.waes.test.model.filter.ProductSortEnum;
 import com.waes.test.observer.Observer;
 import com.waes.test.repository.ProductRepository;
 import com.waes.test.service.ProductService;
+import com.waes.test.util.CursorUtils;
 import com.waes.test.util.ProductsMapperUtils;
+import com.waes.test.util.SingleFlight;
+import com.waes.test.util.UuidUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.IdGenerator;
 
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  * {@link Service} class to handle Operations with Product.
@@ -37,77 +71,517 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository repository;
     private final SupplyChainIntegration supplyChainIntegration;
     private final Observer<ProductDTO> observer;
+    private final EntityManager entityManager;
+    private final ProductCache productCache;
+    private final ProductIdFilter productIdFilter;
+    private final IdGenerator idGenerator;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int lowStockThreshold;
+    private final int jdbcBatchSize;
+    private final int maxBatchSize;
+    // Concurrent lookups of the same product, after an eviction, share a single cache miss and database query.
+    private final SingleFlight<UUID, Optional<ProductDTO>> productFlights = new SingleFlight<>();
 
     public ProductServiceImpl(ProductRepository repository,
                               SupplyChainIntegration supplyChainIntegration,
                               @Qualifier("propagationObserver")
-                                      Observer<ProductDTO> observer) {
+                                      Observer<ProductDTO> observer,
+                              EntityManager entityManager,
+                              ProductCache productCache,
+                              ProductIdFilter productIdFilter,
+                              @Qualifier("productIdGenerator") IdGenerator idGenerator,
+                              @Value("${products.page.default.size}") int defaultPageSize,
+                              @Value("${products.page.max.size}") int maxPageSize,
+                              @Value("${products.low.stock.threshold}") int lowStockThreshold,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}") int jdbcBatchSize,
+                              @Value("${products.batch.max.size}") int maxBatchSize) {
         this.repository = repository;
         this.supplyChainIntegration = supplyChainIntegration;
         this.observer = observer;
+        this.entityManager = entityManager;
+        this.productCache = productCache;
+        this.productIdFilter = productIdFilter;
+        this.idGenerator = idGenerator;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.lowStockThreshold = lowStockThreshold;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
-    public ProductsDTO getProducts(Boolean downstream) {
-        if (downstream) {
-            return supplyChainIntegration.getProducts();
-        }
+    public ProductsDTO getProducts(Integer limit, String cursor, ProductFilter productFilter) {
+        log.info("Getting Products page with limit {}, cursor {} and filter {}.", limit, cursor, productFilter);
+        int pageSize = getPageSize(limit);
+        ProductFilter resolvedFilter = resolveFilter(productFilter);
+        UUID lastKey = CursorUtils.decode(cursor);
+        // Pages are cached until the catalogue changes, the key holds everything the page depends on. Like any other read they
+        // are loaded from the replica unless the client wrote within its read-your-writes window.
+        return productCache.getPage(String.join(":", String.valueOf(pageSize), String.valueOf(lastKey), resolvedFilter.toString()),
+                () -> findPage(resolvedFilter, lastKey, pageSize));
+    }
 
-        log.info("Getting All Products.");
-        List<ProductDTO> productDTOList = StreamSupport
-                .stream(repository.findAll().spliterator(), false)
-                .map(ProductsMapperUtils::productDtofrom)
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<ProductsDTO> getDownstreamProducts() {
+        return supplyChainIntegration.getProductsAsync();
+    }
 
-        return new ProductsDTO().bundle(productDTOList);
+    @Override
+    public void exportProducts(ProductFilter productFilter, String sort, Consumer<ProductDTO> consumer) {
+        log.info("Exporting Products with filter {} sorted by {}.", productFilter, sort);
+        // Rows are mapped straight into ProductDTO, so nothing is kept on the persistence context while streaming.
+        repository.exportAll(resolveFilter(productFilter), resolveSort(sort), consumer);
     }
 
     @Override
-    public ProductDTO getProduct(String productId, Boolean downstream) {
-        if (downstream) {
-            return supplyChainIntegration.getProduct(productId);
+    public ProductChangesDTO getProductChanges(Long since, Integer limit) {
+        log.info("Getting Product changes since {} with limit {}.", since, limit);
+        if (Objects.isNull(since) || since < 0) {
+            throw new BadRequestException(String.format("The provided since %s must not be negative.", since));
         }
+        List<ProductChangeDTO> productChangeDTOList = repository.findChanges(since, getPageSize(limit));
+        // With no changes the client keeps polling from the same sequence.
+        long next = productChangeDTOList.isEmpty() ? since : productChangeDTOList.get(productChangeDTOList.size() - 1).getSeq();
+        return new ProductChangesDTO().bundle(productChangeDTOList).next(next);
+    }
+
+    @Override
+    public ProductStatsDTO getProductStats() {
+        log.info("Getting Product stats.");
+        return repository.findStats();
+    }
 
+    @Override
+    @Transactional
+    public void rebuildProductStats() {
+        log.info("Rebuilding Product stats.");
+        repository.rebuildStats();
+    }
+
+    @Override
+    public void warmUpProductCache(int size) {
+        List<ProductDTO> productDTOList = repository.findLastWritten(size);
+        productCache.putAll(productDTOList);
+        log.info("Warmed up the product cache with {} products.", productDTOList.size());
+    }
+
+    @Override
+    public ProductDTO getProduct(String productId) {
         log.info("Getting Product with id {}.", productId);
-        ProductEntity productEntity = repository.findById(productId).orElseThrow(() -> {
+        return UuidUtils.parse(productId).flatMap(this::findProductById).orElseThrow(() -> {
             log.error("Failed to retrieve product from internal database if id {}.", productId);
             throw new BadRequestException("Product not found with the provided Id");
         });
-        return ProductsMapperUtils.productDtofrom(productEntity);
     }
 
     @Override
+    public CompletableFuture<ProductDTO> getDownstreamProduct(String productId) {
+        return supplyChainIntegration.getProductAsync(productId);
+    }
+
+    @Override
+    public ProductsDTO lookupProducts(List<String> productIds) {
+        log.info("Looking up {} Products.", productIds.size());
+        validateBatchSize(productIds.size());
+        List<UUID> ids = Arrays.stream(parseIds(productIds))
+                .filter(id -> Objects.nonNull(id) && !productIdFilter.isMissing(id))
+                .distinct()
+                .collect(Collectors.toList());
+        // A single round trip gets the cached products, and a single query the rest, instead of one of each per product.
+        // Ids the filter does not know are left out of the cache, but still queried, as they may have been created on another node.
+        Map<UUID, ProductDTO> productDTOs = new HashMap<>(productCache.getAll(ids.stream().filter(productIdFilter::mightExist).collect(Collectors.toList())));
+        List<UUID> missedIds = ids.stream().filter(id -> !productDTOs.containsKey(id)).collect(Collectors.toList());
+        if (!missedIds.isEmpty()) {
+            List<UUID> knownIds = missedIds.stream().filter(productIdFilter::mightExist).collect(Collectors.toList());
+            List<ProductDTO> foundProductDTOList = new ArrayList<>(knownIds.isEmpty() ? List.of() : repository.findProducts(knownIds));
+            foundProductDTOList.forEach(productDTO -> productDTOs.put(UUID.fromString(productDTO.getId()), productDTO));
+            // Ids the filter does not know and the ones the replica did not find are confirmed on the primary before being recorded
+            // as missing, as they may have been created since the last refresh or behind the replica lag.
+            List<UUID> unconfirmedIds = missedIds.stream().filter(id -> !productDTOs.containsKey(id)).collect(Collectors.toList());
+            if (!unconfirmedIds.isEmpty()) {
+                List<ProductDTO> confirmedProductDTOList = ReadYourWritesContext.onPrimary(() -> repository.findProducts(unconfirmedIds));
+                confirmedProductDTOList.forEach(productDTO -> productDTOs.put(UUID.fromString(productDTO.getId()), productDTO));
+                foundProductDTOList.addAll(confirmedProductDTOList);
+            }
+            productCache.fillAll(foundProductDTOList);
+            productIdFilter.addAll(idsOf(foundProductDTOList));
+            missedIds.stream().filter(id -> !productDTOs.containsKey(id)).forEach(productIdFilter::markMissing);
+        }
+        return new ProductsDTO().bundle(ids.stream().map(productDTOs::get).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional
     public ProductDTO saveProduct(NewProductDTO newProductDTO) {
         log.info("Creating Product with data {}.", newProductDTO);
-        ProductEntity productEntity = repository.save(ProductsMapperUtils.productEntityfrom(newProductDTO));
+        ProductEntity productEntity = repository.save(ProductsMapperUtils.productEntityfrom(newProductDTO, idGenerator.generateId()));
         ProductDTO productDTO = ProductsMapperUtils.productDtofrom(productEntity);
+        productIdFilter.addAll(List.of(productEntity.getId()));
+        repository.recordChanges(List.of(productEntity.getId()), false);
+        recordStats(Collections.emptyList(), List.of(productDTO));
+        writeThroughCacheAfterCommit(List.of(productDTO));
         observer.notifyObserver(productDTO, ActionEnum.CREATE, EventTypeEnum.PROPAGATE);
         return productDTO;
     }
 
     @Override
-    @CacheEvict(value = "product", key = "#productId")
-    public ProductDTO updateProduct(UpdateProductDTO updateProductDTO, String productId) {
-        log.info("Updating Product with data {} and id {}.", updateProductDTO, productId);
-        validateId(productId);
-        ProductEntity productEntity = repository.save(ProductsMapperUtils.productEntityfrom(updateProductDTO, productId));
-        ProductDTO productDTO = ProductsMapperUtils.productDtofrom(productEntity);
+    @Transactional
+    public ProductsDTO saveProducts(List<NewProductDTO> newProductDTOList) {
+        log.info("Creating {} Products in batch.", newProductDTOList.size());
+        validateBatchSize(newProductDTOList.size());
+        List<ProductDTO> productDTOList = new ArrayList<>(newProductDTOList.size());
+        List<UUID> createdIds = new ArrayList<>(newProductDTOList.size());
+        for (int from = 0; from < newProductDTOList.size(); from += jdbcBatchSize) {
+            List<ProductEntity> productEntityList = newProductDTOList.subList(from, Math.min(from + jdbcBatchSize, newProductDTOList.size()))
+                    .stream()
+                    .map(newProductDTO -> ProductsMapperUtils.productEntityfrom(newProductDTO, idGenerator.generateId()))
+                    .collect(Collectors.toList());
+            repository.saveAll(productEntityList).forEach(productEntity -> {
+                createdIds.add(productEntity.getId());
+                productDTOList.add(ProductsMapperUtils.productDtofrom(productEntity));
+            });
+            // Each chunk is sent as one JDBC batch and then released, so the persistence context does not grow with the batch.
+            entityManager.flush();
+            entityManager.clear();
+        }
+        productIdFilter.addAll(createdIds);
+        repository.recordChanges(createdIds, false);
+        recordStats(Collections.emptyList(), productDTOList);
+        writeThroughCacheAfterCommit(productDTOList);
+        observer.notifyObservers(productDTOList, ActionEnum.CREATE, EventTypeEnum.PROPAGATE);
+        return new ProductsDTO().bundle(productDTOList);
+    }
+
+    @Override
+    @Transactional
+    public ProductDTO updateProduct(UpdateProductDTO updateProductDTO, String productId, Long expectedVersion) {
+        log.info("Updating Product with data {}, id {} and expected version {}.", updateProductDTO, productId, expectedVersion);
+        UUID id = UuidUtils.parse(productId).orElseThrow(() -> productNotFound(productId));
+        ProductEntity productEntity = ProductsMapperUtils.productEntityfrom(updateProductDTO, id, expectedVersion);
+        List<ProductDTO> previousProductDTOList = repository.findForUpdate(List.of(id));
+        // A single UPDATE both checks the product (and its version) and writes it, its affected rows replace a previous existence check.
+        int affectedRows = Objects.isNull(expectedVersion)
+                ? repository.updateProduct(productEntity)
+                : repository.updateProductIfVersionMatches(productEntity);
+        validateAffectedRows(affectedRows, id, expectedVersion);
+        repository.recordChanges(List.of(id), false);
+        // The new version is only known when the request was conditional, otherwise it is left out instead of being read again.
+        ProductDTO productDTO = ProductsMapperUtils.productDtofrom(updateProductDTO, productId)
+                .version(Objects.isNull(expectedVersion) ? null : expectedVersion + 1);
+        // Without the new version the cached product can not be complete, so it is evicted instead.
+        if (Objects.isNull(expectedVersion)) {
+            invalidateCacheAfterCommit(List.of(id));
+        } else {
+            writeThroughCacheAfterCommit(List.of(productDTO));
+        }
+        recordStats(previousProductDTOList, List.of(productDTO));
         observer.notifyObserver(productDTO, ActionEnum.UPDATE, EventTypeEnum.PROPAGATE);
         return productDTO;
     }
 
     @Override
-    @CacheEvict(value = "product", key = "#productId")
-    public void deleteProduct(String productId) {
-        log.info("Deleting product with id {}.", productId);
-        validateId(productId);
-        repository.deleteById(productId);
+    @Transactional
+    public BatchResultDTO updateProducts(List<BatchUpdateProductDTO> batchUpdateProductDTOList) {
+        log.info("Updating {} Products in batch.", batchUpdateProductDTOList.size());
+        validateBatchSize(batchUpdateProductDTOList.size());
+        UUID[] productIds = parseIds(batchUpdateProductDTOList.stream().map(BatchUpdateProductDTO::getId).collect(Collectors.toList()));
+        // The products found are locked, so the ones written are known before the update and no concurrent write can remove them.
+        List<ProductDTO> previousProductDTOList = repository.findForUpdate(Arrays.stream(productIds).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Set<UUID> lockedIds = idsOf(previousProductDTOList);
+
+        BatchResultDTO batchResultDTO = new BatchResultDTO();
+        List<ProductDTO> updatedProductDTOList = new ArrayList<>();
+        List<UUID> updatedIds = new ArrayList<>();
+        // When a product is repeated on the batch only its last values are written, so they are the ones left on the table.
+        Map<UUID, ProductEntity> finalProductEntities = new LinkedHashMap<>();
+        Map<UUID, ProductDTO> finalProductDTOs = new LinkedHashMap<>();
+        for (int index = 0; index < batchUpdateProductDTOList.size(); index++) {
+            BatchUpdateProductDTO batchUpdateProductDTO = batchUpdateProductDTOList.get(index);
+            if (lockedIds.contains(productIds[index])) {
+                ProductDTO productDTO = ProductsMapperUtils.productDtofrom(batchUpdateProductDTO);
+                updatedIds.add(productIds[index]);
+                updatedProductDTOList.add(productDTO);
+                finalProductEntities.put(productIds[index], ProductsMapperUtils.productEntityfrom(batchUpdateProductDTO, productIds[index]));
+                finalProductDTOs.put(productIds[index], productDTO);
+                batchResultDTO.addBundleItem(new BatchResultItemDTO().id(batchUpdateProductDTO.getId()).status(BatchResultItemDTO.StatusEnum.UPDATED));
+            } else {
+                batchResultDTO.addBundleItem(new BatchResultItemDTO().id(batchUpdateProductDTO.getId()).status(BatchResultItemDTO.StatusEnum.NOT_FOUND));
+            }
+        }
+        if (!finalProductEntities.isEmpty()) {
+            repository.batchUpdate(new ArrayList<>(finalProductEntities.values()), jdbcBatchSize);
+        }
+        repository.recordChanges(updatedIds, false);
+        recordStats(previousProductDTOList, finalProductDTOs.values());
+        invalidateCacheAfterCommit(updatedIds);
+        observer.notifyObservers(updatedProductDTOList, ActionEnum.UPDATE, EventTypeEnum.PROPAGATE);
+        return batchResultDTO;
+    }
+
+    @Override
+    @Transactional
+    public void deleteProduct(String productId, Long expectedVersion) {
+        log.info("Deleting product with id {} and expected version {}.", productId, expectedVersion);
+        UUID id = UuidUtils.parse(productId).orElseThrow(() -> productNotFound(productId));
+        List<ProductDTO> previousProductDTOList = repository.findForUpdate(List.of(id));
+        int affectedRows = Objects.isNull(expectedVersion)
+                ? repository.deleteProduct(id)
+                : repository.deleteProductIfVersionMatches(id, expectedVersion);
+        validateAffectedRows(affectedRows, id, expectedVersion);
+        repository.recordChanges(List.of(id), true);
+        recordStats(previousProductDTOList, Collections.emptyList());
+        invalidateCacheAfterCommit(List.of(id));
+        afterCommit(() -> productIdFilter.markMissing(id));
         observer.notifyObserver(new ProductDTO().id(productId), ActionEnum.DELETE, EventTypeEnum.PROPAGATE);
     }
 
-    private void validateId(String productId) {
-        if (repository.countById(productId) == 0) {
-            throw new BadRequestException(String.format("We could not find a valid Product with the provided Id %s.", productId));
+    @Override
+    @Transactional
+    public BatchResultDTO deleteProducts(List<String> productIds) {
+        log.info("Deleting {} Products in batch.", productIds.size());
+        validateBatchSize(productIds.size());
+        UUID[] ids = parseIds(productIds);
+        // The products found are locked, so the ones deleted are known before the delete and no concurrent write can remove them.
+        List<ProductDTO> previousProductDTOList = repository.findForUpdate(Arrays.stream(ids).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Set<UUID> lockedIds = idsOf(previousProductDTOList);
+        if (!lockedIds.isEmpty()) {
+            repository.batchDelete(lockedIds, jdbcBatchSize);
+        }
+
+        BatchResultDTO batchResultDTO = new BatchResultDTO();
+        Set<UUID> notReportedIds = new HashSet<>(lockedIds);
+        List<UUID> deletedIds = new ArrayList<>();
+        List<ProductDTO> deletedProductDTOList = new ArrayList<>();
+        for (int index = 0; index < productIds.size(); index++) {
+            String productId = productIds.get(index);
+            // A product repeated on the batch is only reported deleted for its first occurrence.
+            if (notReportedIds.remove(ids[index])) {
+                deletedIds.add(ids[index]);
+                deletedProductDTOList.add(new ProductDTO().id(productId));
+                batchResultDTO.addBundleItem(new BatchResultItemDTO().id(productId).status(BatchResultItemDTO.StatusEnum.DELETED));
+            } else {
+                batchResultDTO.addBundleItem(new BatchResultItemDTO().id(productId).status(BatchResultItemDTO.StatusEnum.NOT_FOUND));
+            }
+        }
+        repository.recordChanges(deletedIds, true);
+        recordStats(previousProductDTOList, Collections.emptyList());
+        invalidateCacheAfterCommit(deletedIds);
+        afterCommit(() -> deletedIds.forEach(productIdFilter::markMissing));
+        observer.notifyObservers(deletedProductDTOList, ActionEnum.DELETE, EventTypeEnum.PROPAGATE);
+        return batchResultDTO;
+    }
+
+    /**
+     * Parses the ids of a batch, keeping their positions. Ids that are not valid are left null, as no product has them.
+     *
+     * @param productIds
+     * @return {@link UUID}[]
+     */
+    private UUID[] parseIds(List<String> productIds) {
+        return productIds.stream()
+                .map(productId -> UuidUtils.parse(productId).orElse(null))
+                .toArray(UUID[]::new);
+    }
+
+    private Set<UUID> idsOf(List<ProductDTO> productDTOList) {
+        return productDTOList.stream().map(productDTO -> UUID.fromString(productDTO.getId())).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    /**
+     * Adds to the statistics the difference between the products before and after a write.
+     * The products before were read locked, so no concurrent write can change them in between.
+     *
+     * @param previousProductDTOs {@link Collection<ProductDTO>} as they were before the write, empty for creations
+     * @param newProductDTOs      {@link Collection<ProductDTO>} as they are after the write, empty for deletions
+     */
+    private void recordStats(Collection<ProductDTO> previousProductDTOs, Collection<ProductDTO> newProductDTOs) {
+        if (previousProductDTOs.isEmpty() && newProductDTOs.isEmpty()) {
+            return;
         }
+        repository.addToStats(newProductDTOs.size() - previousProductDTOs.size(),
+                unitsOf(newProductDTOs) - unitsOf(previousProductDTOs),
+                valueOf(newProductDTOs).subtract(valueOf(previousProductDTOs)));
+    }
+
+    private long unitsOf(Collection<ProductDTO> productDTOs) {
+        return productDTOs.stream().map(ProductDTO::getQuantity).filter(Objects::nonNull).mapToLong(Integer::longValue).sum();
+    }
+
+    private BigDecimal valueOf(Collection<ProductDTO> productDTOs) {
+        return productDTOs.stream()
+                .filter(productDTO -> Objects.nonNull(productDTO.getPrice()) && Objects.nonNull(productDTO.getQuantity()))
+                .map(productDTO -> productDTO.getPrice().multiply(BigDecimal.valueOf(productDTO.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Once the current transaction commits, evicts the given products and moves the catalogue to a new version when any of them changed.
+     *
+     * @param productIds
+     */
+    private void invalidateCacheAfterCommit(List<UUID> productIds) {
+        afterCommit(() -> {
+            productCache.evictAll(productIds);
+            if (!productIds.isEmpty()) {
+                productCache.bumpCatalogueVersion();
+            }
+        });
+    }
+
+    /**
+     * Once the current transaction commits, writes the given products to the cache and moves the catalogue to a new version.
+     *
+     * @param productDTOList
+     */
+    private void writeThroughCacheAfterCommit(List<ProductDTO> productDTOList) {
+        afterCommit(() -> {
+            productCache.putAll(productDTOList);
+            if (!productDTOList.isEmpty()) {
+                productCache.bumpCatalogueVersion();
+            }
+        });
+    }
+
+    /**
+     * Runs the given action once the current transaction commits, so readers can not cache the previous state again before the commit.
+     * Without an active transaction the action runs immediately.
+     *
+     * @param action
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private ProductsDTO findPage(ProductFilter productFilter, UUID lastKey, int pageSize) {
+        // One extra row is fetched only to know if there is a next page, avoiding a count query.
+        List<ProductDTO> productDTOList = repository.findPage(productFilter, lastKey, pageSize + 1);
+
+        ProductsDTO productsDTO = new ProductsDTO();
+        if (productDTOList.size() > pageSize) {
+            // Copied instead of kept as a view, as the page is cached and may be serialized with its list type.
+            productDTOList = new ArrayList<>(productDTOList.subList(0, pageSize));
+            productsDTO.next(CursorUtils.encode(UUID.fromString(productDTOList.get(pageSize - 1).getId())));
+        }
+        return productsDTO.bundle(productDTOList);
+    }
+
+    private int getPageSize(Integer limit) {
+        if (Objects.isNull(limit)) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new BadRequestException(String.format("The provided limit %s must be greater than zero.", limit));
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    /**
+     * Validates the ranges of the filter and turns the low stock flag into an upper bound on the quantity.
+     *
+     * @param productFilter {@link ProductFilter}
+     * @return {@link ProductFilter} with only ranges to be applied
+     */
+    private ProductFilter resolveFilter(ProductFilter productFilter) {
+        validateRange("price", productFilter.getPriceMin(), productFilter.getPriceMax());
+        validateRange("quantity", productFilter.getQuantityMin(), productFilter.getQuantityMax());
+        if (!productFilter.isLowStock()) {
+            return productFilter;
+        }
+        Integer quantityMax = Objects.isNull(productFilter.getQuantityMax())
+                ? lowStockThreshold
+                : Math.min(productFilter.getQuantityMax(), lowStockThreshold);
+        return productFilter.toBuilder().quantityMax(quantityMax).lowStock(false).build();
+    }
+
+    private ProductSortEnum resolveSort(String sort) {
+        if (Objects.isNull(sort)) {
+            return ProductSortEnum.ID;
+        }
+        return Arrays.stream(ProductSortEnum.values())
+                .filter(productSort -> productSort.name().equalsIgnoreCase(sort))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException(String.format("The provided sort %s is not valid.", sort)));
+    }
+
+    private <T extends Comparable<T>> void validateRange(String field, T min, T max) {
+        if (Objects.nonNull(min) && Objects.nonNull(max) && min.compareTo(max) > 0) {
+            throw new BadRequestException(String.format("The provided %s range from %s to %s is not valid.", field, min, max));
+        }
+    }
+
+    private void validateBatchSize(int batchSize) {
+        if (batchSize > maxBatchSize) {
+            throw new BadRequestException(String.format("The batch contains %s products, but the maximum allowed is %s.", batchSize, maxBatchSize));
+        }
+    }
+
+    /**
+     * Validates the outcome of a single product write. Only when nothing was written for a conditional request the product is
+     * counted, to tell a missing product apart from a version conflict.
+     *
+     * @param affectedRows
+     * @param productId
+     * @param expectedVersion
+     */
+    private void validateAffectedRows(int affectedRows, UUID productId, Long expectedVersion) {
+        if (affectedRows > 0) {
+            return;
+        }
+        if (Objects.nonNull(expectedVersion) && repository.countById(productId) > 0) {
+            throw new PreconditionFailedException(String.format("The Product with Id %s is not on the version %s anymore.", productId, expectedVersion));
+        }
+        productIdFilter.markMissing(productId);
+        throw productNotFound(productId.toString());
+    }
+
+    /**
+     * Gets a product by the given id, coalescing concurrent lookups of it, and records it as missing on the filter when it is not found.
+     * Cache misses are read from the replica unless the client wrote within its read-your-writes window, and the ones it does not find
+     * are confirmed on the primary.
+     *
+     * @param productId
+     * @return {@link Optional<ProductDTO>}
+     */
+    private Optional<ProductDTO> findProductById(UUID productId) {
+        if (productIdFilter.isMissing(productId)) {
+            return Optional.empty();
+        }
+        if (!productIdFilter.mightExist(productId)) {
+            return findUnknownProductById(productId);
+        }
+        Optional<ProductDTO> productDTO = productFlights.execute(productId, () -> repository.findProductById(productId));
+        return productDTO.isPresent() ? productDTO : findUnknownProductById(productId);
+    }
+
+    /**
+     * Gets a product the filter does not know, or the replica did not find, from the primary bypassing the cache, as it may have been
+     * created on another node since the last refresh or behind the replica lag. It is added to the filter when found, and recorded as
+     * missing otherwise.
+     *
+     * @param productId
+     * @return {@link Optional<ProductDTO>}
+     */
+    private Optional<ProductDTO> findUnknownProductById(UUID productId) {
+        Optional<ProductDTO> productDTO = ReadYourWritesContext.onPrimary(() -> repository.findProducts(List.of(productId))).stream().findFirst();
+        if (productDTO.isPresent()) {
+            productIdFilter.addAll(List.of(productId));
+        } else {
+            productIdFilter.markMissing(productId);
+        }
+        return productDTO;
+    }
+
+    private BadRequestException productNotFound(String productId) {
+        return new BadRequestException(String.format("We could not find a valid Product with the provided Id %s.", productId));
     }
 }
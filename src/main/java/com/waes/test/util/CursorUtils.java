@@ -0,0 +1,51 @@
+package com.waes.test.util;
+
+import com.waes.test.exception.BadRequestException;
+import lombok.experimental.UtilityClass;
+
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Utility class to encode and decode the opaque continuation tokens used on the keyset pagination.
+ *
+ * @author jonathanadepaula
+ */
+@UtilityClass
+public class CursorUtils {
+
+    private static final int UUID_BYTES = 16;
+
+    /**
+     * Encodes the last key of a page into an opaque cursor.
+     *
+     * @param lastKey
+     * @return String
+     */
+    public static String encode(UUID lastKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(UuidUtils.toBytes(lastKey));
+    }
+
+    /**
+     * Decodes an opaque cursor into the last key of the previous page. A null cursor means the first page, so null is returned.
+     *
+     * @param cursor
+     * @return {@link UUID}
+     */
+    public static UUID decode(String cursor) {
+        if (Objects.isNull(cursor) || cursor.isBlank()) {
+            return null;
+        }
+        byte[] lastKey;
+        try {
+            lastKey = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(String.format("The provided cursor %s is not valid.", cursor));
+        }
+        if (lastKey.length != UUID_BYTES) {
+            throw new BadRequestException(String.format("The provided cursor %s is not valid.", cursor));
+        }
+        return UuidUtils.fromBytes(lastKey);
+    }
+}
@@ -0,0 +1,53 @@
+package com.waes.test.util;
+
+import com.waes.test.exception.BadRequestException;
+import lombok.experimental.UtilityClass;
+
+import java.util.Objects;
+
+/**
+ * Utility class to convert the Product version from and to the ETag and If-Match headers.
+ *
+ * @author jonathanadepaula
+ */
+@UtilityClass
+public class ETagUtils {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String QUOTE = "\"";
+
+    /**
+     * Builds a strong ETag from the Product version.
+     *
+     * @param version
+     * @return String
+     */
+    public static String from(Long version) {
+        return QUOTE + version + QUOTE;
+    }
+
+    /**
+     * Gets the expected Product version from an If-Match header. A null or "*" header means no version is expected.
+     *
+     * @param ifMatch
+     * @return Long
+     */
+    public static Long versionFrom(String ifMatch) {
+        if (Objects.isNull(ifMatch) || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.startsWith(WEAK_PREFIX)) {
+            etag = etag.substring(WEAK_PREFIX.length());
+        }
+        if (etag.length() > 1 && etag.startsWith(QUOTE) && etag.endsWith(QUOTE)) {
+            etag = etag.substring(1, etag.length() - 1);
+        }
+        try {
+            return Long.valueOf(etag);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(String.format("The provided If-Match %s is not valid.", ifMatch));
+        }
+    }
+}
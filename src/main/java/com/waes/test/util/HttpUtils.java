@@ -11,6 +11,8 @@ import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.retry.Retry;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -22,6 +24,10 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Supplier;
 
 /**
@@ -40,6 +46,8 @@ public class HttpUtils {
     private static CircuitBreaker circuitBreaker;
     private static Retry retry;
     private static Observer<ProductDTO> productObserver;
+    // Only schedules the retries of asynchronous requests, which are enqueued right away, so a single thread is enough.
+    private static ScheduledExecutorService retryScheduler;
 
     public HttpUtils(OkHttpClient client,
                      ObjectMapper mapper,
@@ -52,6 +60,11 @@ public class HttpUtils {
         HttpUtils.circuitBreaker = circuitBreaker;
         HttpUtils.retry = retry;
         HttpUtils.productObserver = observer;
+        HttpUtils.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-retry-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -66,6 +79,19 @@ public class HttpUtils {
         return decorated.get();
     }
 
+    /**
+     * Executes an asynchronous call with the provided {@link CircuitBreaker}. The outcome is recorded when the call completes, and
+     * an open {@link CircuitBreaker} fails the call with a {@link CallNotPermittedException}.
+     *
+     * @param supplier
+     * @param <RESPONSE>
+     * @return {@link CompletableFuture<RESPONSE>}
+     */
+    public <RESPONSE> CompletableFuture<RESPONSE> executeCallAsync(Supplier<CompletionStage<RESPONSE>> supplier) {
+        Supplier<CompletionStage<RESPONSE>> decorated = circuitBreaker.decorateCompletionStage(supplier);
+        return decorated.get().toCompletableFuture();
+    }
+
     /**
      * Executes a call with Observer that will be notified whenever there is an {@link InternalServerErrorException} or a {@link CallNotPermittedException}.
      *
@@ -101,6 +127,24 @@ public class HttpUtils {
         return retryingGetRequest.get();
     }
 
+    /**
+     * Executes a GET Request without blocking the calling thread. Those requests contains a {@link Retry} which the configured
+     * options, and the retries are scheduled after the wait instead of sleeping on a thread.
+     *
+     * @param url
+     * @param clazz
+     * @param <RESPONSE>
+     * @return {@link CompletableFuture<RESPONSE>}
+     */
+    public <RESPONSE> CompletableFuture<RESPONSE> executeGetRequestAsync(String url, Class<RESPONSE> clazz) {
+        Request request = new Request.Builder()
+                .url(url)
+                .build();
+        Supplier<CompletionStage<RESPONSE>> getRequestSupplier = () -> executeRequestAsync(request, clazz);
+        Supplier<CompletionStage<RESPONSE>> retryingGetRequest = Retry.decorateCompletionStage(retry, retryScheduler, getRequestSupplier);
+        return retryingGetRequest.get().toCompletableFuture();
+    }
+
     /**
      * Executes a DELETE Request.
      *
@@ -167,6 +211,37 @@ public class HttpUtils {
         }
     }
 
+    /**
+     * Enqueues a Request on the {@link OkHttpClient} dispatcher and makes the response validations once it arrives.
+     *
+     * @param request
+     * @param clazz
+     * @param <RESPONSE>
+     * @return {@link CompletableFuture<RESPONSE>}
+     */
+    private <RESPONSE> CompletableFuture<RESPONSE> executeRequestAsync(Request request, Class<RESPONSE> clazz) {
+        log.info("Enqueuing request to url {}.", request.url());
+        CompletableFuture<RESPONSE> future = new CompletableFuture<>();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                log.error("Failed to execute request to url {}.", request.url(), e);
+                future.completeExceptionally(new InternalServerErrorException("Failed to access resource from 3rd party API."));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    validateStatusCode(response);
+                    future.complete(validateResponseBody(response.body(), clazz));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
     /**
      * Validates the Response Body of the request.
      *
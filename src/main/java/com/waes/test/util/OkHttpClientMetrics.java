@@ -0,0 +1,47 @@
+package com.waes.test.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * {@link MeterBinder} which reports the connections of the {@link ConnectionPool} and the calls of the {@link Dispatcher} of an
+ * {@link OkHttpClient}, to size them against the traffic to the downstream service.
+ *
+ * @author jonathanadepaula
+ */
+public class OkHttpClientMetrics implements MeterBinder {
+
+    private static final String STATE_TAG = "state";
+
+    private final OkHttpClient client;
+
+    public OkHttpClientMetrics(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ConnectionPool connectionPool = client.connectionPool();
+        Gauge.builder("okhttp.pool.connections", connectionPool, ConnectionPool::idleConnectionCount)
+                .tag(STATE_TAG, "idle")
+                .description("The number of idle connections on the pool")
+                .register(registry);
+        Gauge.builder("okhttp.pool.connections", connectionPool, pool -> pool.connectionCount() - pool.idleConnectionCount())
+                .tag(STATE_TAG, "active")
+                .description("The number of connections on the pool in use by a call")
+                .register(registry);
+        Dispatcher dispatcher = client.dispatcher();
+        Gauge.builder("okhttp.dispatcher.calls", dispatcher, Dispatcher::runningCallsCount)
+                .tag(STATE_TAG, "running")
+                .description("The number of calls running, bounded by the dispatcher limits")
+                .register(registry);
+        Gauge.builder("okhttp.dispatcher.calls", dispatcher, Dispatcher::queuedCallsCount)
+                .tag(STATE_TAG, "queued")
+                .description("The number of asynchronous calls waiting for the dispatcher limits")
+                .register(registry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.waes.test.util;
 
+import com.waes.test.model.BatchUpdateProductDTO;
 import com.waes.test.model.NewProductDTO;
 import com.waes.test.model.ProductDTO;
 import com.waes.test.model.UpdateProductDTO;
@@ -19,29 +20,50 @@ public class ProductsMapperUtils {
                 .quantity(newProductDTO.getQuantity());
     }
 
+    public static ProductDTO productDtofrom(BatchUpdateProductDTO batchUpdateProductDTO) {
+        return new ProductDTO()
+                .id(batchUpdateProductDTO.getId())
+                .name(batchUpdateProductDTO.getName())
+                .price(batchUpdateProductDTO.getPrice())
+                .quantity(batchUpdateProductDTO.getQuantity());
+    }
+
     public static ProductDTO productDtofrom(ProductEntity productEntity) {
         return new ProductDTO()
-                .id(productEntity.getId())
+                .id(productEntity.getId().toString())
                 .name(productEntity.getName())
                 .price(productEntity.getPrice())
-                .quantity(productEntity.getQuantity());
+                .quantity(productEntity.getQuantity())
+                .version(productEntity.getVersion());
     }
 
-    public static ProductEntity productEntityfrom(NewProductDTO newProductDTO) {
+    public static ProductEntity productEntityfrom(NewProductDTO newProductDTO, UUID productId) {
         return ProductEntity.builder()
-                .id(UUID.randomUUID().toString())
+                .id(productId)
                 .name(newProductDTO.getName())
                 .price(newProductDTO.getPrice())
                 .quantity(newProductDTO.getQuantity())
                 .build();
     }
 
-    public static ProductEntity productEntityfrom(UpdateProductDTO newProductDTO, String productId) {
+    public static ProductEntity productEntityfrom(UpdateProductDTO newProductDTO, UUID productId, Long version) {
         return ProductEntity.builder()
                 .id(productId)
                 .name(newProductDTO.getName())
                 .price(newProductDTO.getPrice())
                 .quantity(newProductDTO.getQuantity())
+                .version(version)
+                .persisted(true)
+                .build();
+    }
+
+    public static ProductEntity productEntityfrom(BatchUpdateProductDTO batchUpdateProductDTO, UUID productId) {
+        return ProductEntity.builder()
+                .id(productId)
+                .name(batchUpdateProductDTO.getName())
+                .price(batchUpdateProductDTO.getPrice())
+                .quantity(batchUpdateProductDTO.getQuantity())
+                .persisted(true)
                 .build();
     }
 }
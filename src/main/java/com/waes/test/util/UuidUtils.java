@@ -0,0 +1,77 @@
+package com.waes.test.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Utility class to generate the Product ids and convert them from and to their string and binary forms.
+ *
+ * @author jonathanadepaula
+ */
+@UtilityClass
+public class UuidUtils {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int UUID_BYTES = 16;
+    private static final int CANONICAL_LENGTH = 36;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+
+    /**
+     * Generates a version 7 {@link UUID}: the first 48 bits are the unix time in milliseconds and the remaining ones are random,
+     * so ids generated one after the other are also close to each other on the primary key index.
+     *
+     * @return {@link UUID}
+     */
+    public static UUID timeOrderedUuid() {
+        long mostSigBits = (System.currentTimeMillis() << 16) | VERSION_7 | (RANDOM.nextInt() & 0x0FFFL);
+        long leastSigBits = VARIANT_RFC_4122 | (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Parses a product id received on the API. Anything that is not a canonical {@link UUID} can not be a product id.
+     *
+     * @param id
+     * @return {@link Optional<UUID>} empty when the id is not valid
+     */
+    public static Optional<UUID> parse(String id) {
+        if (Objects.isNull(id) || id.length() != CANONICAL_LENGTH) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(id));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Converts a {@link UUID} into its 16 bytes big-endian form, the same stored on the product table.
+     *
+     * @param uuid
+     * @return byte[]
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(UUID_BYTES)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Converts 16 bytes big-endian back into a {@link UUID}.
+     *
+     * @param bytes
+     * @return {@link UUID}
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,12 @@
+CREATE TABLE product_change_sequence (
+    id INTEGER PRIMARY KEY,
+    seq BIGINT NOT NULL
+);
+
+INSERT INTO product_change_sequence (id, seq) SELECT 1, COALESCE(MAX(seq), 0) FROM product_change;
+
+DROP SEQUENCE product_change_seq;
+
+DROP INDEX product_change_changed_at_index;
+
+ALTER TABLE product_change DROP COLUMN changed_at;
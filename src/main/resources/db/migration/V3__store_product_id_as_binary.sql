@@ -0,0 +1,8 @@
+ALTER TABLE product ADD COLUMN binary_id BINARY(16);
+UPDATE product SET binary_id = CAST(CAST(id AS UUID) AS BINARY(16));
+DROP INDEX ID_INDEX;
+ALTER TABLE product DROP PRIMARY KEY;
+ALTER TABLE product DROP COLUMN id;
+ALTER TABLE product ALTER COLUMN binary_id RENAME TO id;
+ALTER TABLE product ALTER COLUMN id SET NOT NULL;
+ALTER TABLE product ADD PRIMARY KEY (id);
@@ -0,0 +1,2 @@
+CREATE INDEX PRODUCT_PRICE_ID_INDEX ON product(price, id);
+CREATE INDEX PRODUCT_QUANTITY_ID_INDEX ON product(quantity, id);
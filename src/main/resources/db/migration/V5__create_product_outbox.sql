@@ -0,0 +1,10 @@
+CREATE TABLE product_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    action VARCHAR(10) NOT NULL,
+    event_type VARCHAR(10) NOT NULL,
+    product_id VARCHAR(50),
+    name VARCHAR(50),
+    price DECIMAL,
+    quantity INTEGER,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
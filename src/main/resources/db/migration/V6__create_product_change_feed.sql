@@ -0,0 +1,14 @@
+CREATE TABLE product_change_sequence (
+    id INTEGER PRIMARY KEY,
+    seq BIGINT NOT NULL
+);
+
+INSERT INTO product_change_sequence (id, seq) VALUES (1, 0);
+
+CREATE TABLE product_change (
+    product_id BINARY(16) PRIMARY KEY,
+    seq BIGINT NOT NULL,
+    deleted BOOLEAN NOT NULL
+);
+
+CREATE UNIQUE INDEX product_change_seq_index ON product_change(seq);
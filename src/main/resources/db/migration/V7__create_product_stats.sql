@@ -0,0 +1,9 @@
+CREATE TABLE product_stats (
+    id INTEGER PRIMARY KEY,
+    product_count BIGINT NOT NULL,
+    total_units BIGINT NOT NULL,
+    total_value DECIMAL NOT NULL
+);
+
+INSERT INTO product_stats (id, product_count, total_units, total_value)
+SELECT 1, COUNT(*), COALESCE(SUM(quantity), 0), COALESCE(SUM(price * quantity), 0) FROM product;
@@ -0,0 +1,15 @@
+ALTER TABLE product_outbox ADD COLUMN attempts INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE product_outbox ADD COLUMN claimed_until TIMESTAMP;
+
+CREATE TABLE product_outbox_dead_letter (
+    id BIGINT PRIMARY KEY,
+    action VARCHAR(10) NOT NULL,
+    event_type VARCHAR(10) NOT NULL,
+    product_id VARCHAR(50),
+    name VARCHAR(50),
+    price DECIMAL,
+    quantity INTEGER,
+    attempts INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    dead_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
@@ -0,0 +1,10 @@
+CREATE SEQUENCE product_change_seq START WITH (SELECT seq + 1 FROM product_change_sequence WHERE id = 1);
+
+DROP TABLE product_change_sequence;
+
+ALTER TABLE product_change ADD COLUMN changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+CREATE INDEX product_change_changed_at_index ON product_change(changed_at);
+
+INSERT INTO product_stats (id, product_count, total_units, total_value)
+SELECT x, 0, 0, 0 FROM SYSTEM_RANGE(2, 16);
@@ -9,4 +9,10 @@ public class TestConstants {
     public static final int PORT = 8080;
     public static final String PRODUCTS_PATH = "/v1/products";
     public static final String PRODUCTS_ID_PATH = "/v1/products/%s";
+    public static final String PRODUCTS_EXPORT_PATH = "/v1/products/export";
+    public static final String PRODUCTS_BATCH_PATH = "/v1/products/batch";
+    public static final String PRODUCTS_LOOKUP_PATH = "/v1/products/lookup";
+    public static final String PRODUCTS_CHANGES_PATH = "/v1/products/changes";
+    public static final String PRODUCTS_STATS_PATH = "/v1/products/stats";
+    public static final String DOWNSTREAM_PRODUCTS_ID_PATH = "/downstream/v1/products/%s";
 }
@@ -0,0 +1,94 @@
+package com.waes.test.cache.impl;
+
+import com.waes.test.model.ProductChangeDTO;
+import com.waes.test.repository.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+class BloomProductIdFilterTest {
+
+    private static final UUID FIRST_ID = UUID.fromString("0184e0c9-c80c-7918-a8c1-c4e24c6b32c1");
+    private static final UUID SECOND_ID = UUID.fromString("0184e0c9-c80c-7918-a8c1-c4e24c6b32c2");
+    private static final UUID THIRD_ID = UUID.fromString("0184e0c9-c80c-7918-a8c1-c4e24c6b32c3");
+
+    @Mock
+    private ProductRepository repository;
+
+    private BloomProductIdFilter bloomProductIdFilter;
+
+    @BeforeEach
+    void setup() {
+        bloomProductIdFilter = new BloomProductIdFilter(repository, 2.0, 0.001, 2, 30, 100);
+    }
+
+    @Test
+    void should_let_every_id_through_before_the_first_build() {
+        Assertions.assertTrue(bloomProductIdFilter.mightExist(FIRST_ID));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_rule_out_ids_missing_from_the_product_table() {
+        Mockito.when(repository.findLastSequence()).thenReturn(5L);
+        Mockito.doAnswer(invocation -> {
+            ((Consumer<UUID>) invocation.getArgument(0)).accept(FIRST_ID);
+            return null;
+        }).when(repository).exportAllIds(ArgumentMatchers.any());
+
+        bloomProductIdFilter.rebuild();
+
+        Assertions.assertTrue(bloomProductIdFilter.mightExist(FIRST_ID));
+        Assertions.assertFalse(bloomProductIdFilter.mightExist(SECOND_ID));
+        Mockito.verify(repository, Mockito.times(1)).findChanges(5L, 2);
+    }
+
+    @Test
+    void should_add_ids_created_on_other_nodes_from_the_change_feed() {
+        Mockito.when(repository.findLastSequence()).thenReturn(0L);
+        Mockito.when(repository.findChanges(0L, 2)).thenReturn(List.of(
+                new ProductChangeDTO().seq(1L).id(FIRST_ID.toString()).deleted(false),
+                new ProductChangeDTO().seq(2L).id(SECOND_ID.toString()).deleted(true)));
+        Mockito.when(repository.findChanges(2L, 2)).thenReturn(List.of());
+
+        bloomProductIdFilter.rebuild();
+
+        Assertions.assertTrue(bloomProductIdFilter.mightExist(FIRST_ID));
+        Assertions.assertFalse(bloomProductIdFilter.mightExist(SECOND_ID));
+    }
+
+    @Test
+    void should_report_ids_marked_missing_until_they_are_added() {
+        Mockito.when(repository.findLastSequence()).thenReturn(0L);
+        bloomProductIdFilter.rebuild();
+        bloomProductIdFilter.addAll(List.of(THIRD_ID));
+
+        bloomProductIdFilter.markMissing(THIRD_ID);
+        Assertions.assertTrue(bloomProductIdFilter.isMissing(THIRD_ID));
+
+        bloomProductIdFilter.addAll(List.of(THIRD_ID));
+        Assertions.assertFalse(bloomProductIdFilter.isMissing(THIRD_ID));
+        Assertions.assertTrue(bloomProductIdFilter.mightExist(THIRD_ID));
+    }
+
+    @Test
+    void should_size_the_filter_from_the_number_of_products() {
+        Mockito.when(repository.count()).thenReturn(100_000L);
+        Mockito.when(repository.findLastSequence()).thenReturn(0L);
+
+        bloomProductIdFilter.rebuild();
+
+        Mockito.verify(repository, Mockito.times(1)).count();
+        Assertions.assertFalse(bloomProductIdFilter.mightExist(FIRST_ID));
+    }
+}
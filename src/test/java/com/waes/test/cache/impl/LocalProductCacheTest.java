@@ -0,0 +1,99 @@
+package com.waes.test.cache.impl;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductsDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class LocalProductCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager("product", "productsCache");
+    private LocalProductCache localProductCache;
+
+    @BeforeEach
+    void setup() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("cacheManager", cacheManager);
+        localProductCache = new LocalProductCache(beanFactory.getBeanProvider(CacheManager.class));
+    }
+
+    @Test
+    void should_load_page_once_per_catalogue_version() {
+        ProductsDTO first = localProductCache.getPage("2:null", this::loadPage);
+        ProductsDTO cached = localProductCache.getPage("2:null", this::loadPage);
+        localProductCache.bumpCatalogueVersion();
+        ProductsDTO reloaded = localProductCache.getPage("2:null", this::loadPage);
+
+        Assertions.assertSame(first, cached);
+        Assertions.assertNotSame(first, reloaded);
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void should_write_products_under_their_ids() {
+        ProductDTO productDTO = new ProductDTO().id("0184e0c9-c80c-7918-a8c1-c4e24c6b32c1").name("product").version(0L);
+
+        localProductCache.putAll(List.of(productDTO));
+
+        Assertions.assertEquals(productDTO, cacheManager.getCache("product").get(UUID.fromString(productDTO.getId())).get());
+    }
+
+    @Test
+    void should_keep_the_later_version_when_products_are_written_out_of_order() {
+        ProductDTO older = new ProductDTO().id("0184e0c9-c80c-7918-a8c1-c4e24c6b32c1").name("older").version(1L);
+        ProductDTO newer = new ProductDTO().id(older.getId()).name("newer").version(2L);
+
+        localProductCache.putAll(List.of(newer));
+        localProductCache.putAll(List.of(older));
+
+        Assertions.assertEquals(newer, cacheManager.getCache("product").get(UUID.fromString(older.getId())).get());
+    }
+
+    @Test
+    void should_evict_products_written_without_version() {
+        ProductDTO cached = new ProductDTO().id("0184e0c9-c80c-7918-a8c1-c4e24c6b32c1").name("cached").version(1L);
+        localProductCache.putAll(List.of(cached));
+
+        localProductCache.putAll(List.of(new ProductDTO().id(cached.getId()).name("unversioned")));
+
+        Assertions.assertNull(cacheManager.getCache("product").get(UUID.fromString(cached.getId())));
+    }
+
+    @Test
+    void should_get_all_cached_products_and_keep_them_when_filling() {
+        ProductDTO cached = new ProductDTO().id("0184e0c9-c80c-7918-a8c1-c4e24c6b32c1").name("cached").version(1L);
+        ProductDTO stale = new ProductDTO().id(cached.getId()).name("stale");
+        ProductDTO loaded = new ProductDTO().id("0184e0c9-c80c-7918-a8c1-c4e24c6b32c2").name("loaded");
+        UUID missingId = UUID.fromString("0184e0c9-c80c-7918-a8c1-c4e24c6b32c3");
+        localProductCache.putAll(List.of(cached));
+
+        localProductCache.fillAll(List.of(stale, loaded));
+
+        Assertions.assertEquals(Map.of(UUID.fromString(cached.getId()), cached, UUID.fromString(loaded.getId()), loaded),
+                localProductCache.getAll(List.of(UUID.fromString(cached.getId()), UUID.fromString(loaded.getId()), missingId)));
+    }
+
+    @Test
+    void should_load_page_when_there_is_no_cache_manager() {
+        localProductCache = new LocalProductCache(new StaticListableBeanFactory().getBeanProvider(CacheManager.class));
+
+        localProductCache.getPage("2:null", this::loadPage);
+        localProductCache.getPage("2:null", this::loadPage);
+
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    private ProductsDTO loadPage() {
+        return new ProductsDTO().bundle(List.of(new ProductDTO().id(String.valueOf(loads.incrementAndGet()))));
+    }
+}
@@ -0,0 +1,125 @@
+package com.waes.test.cache.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waes.test.model.event.CacheInvalidationEvent;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    private static final String CHANNEL = "cache-invalidation";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private TwoLevelCacheManager twoLevelCacheManager;
+
+    @BeforeEach
+    void setup() {
+        remoteCacheManager = new ConcurrentMapCacheManager("product");
+        twoLevelCacheManager = new TwoLevelCacheManager(remoteCacheManager, redisTemplate, objectMapper, CHANNEL,
+                100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void should_serve_from_the_local_cache_after_the_first_remote_hit() {
+        remoteCacheManager.getCache("product").put("1", "value");
+        Cache cache = twoLevelCacheManager.getCache("product");
+
+        Assertions.assertEquals("value", cache.get("1").get());
+        remoteCacheManager.getCache("product").evict("1");
+
+        Assertions.assertEquals("value", cache.get("1").get());
+    }
+
+    @Test
+    void should_load_once_and_report_it_on_the_local_cache_metrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TwoLevelCache cache = (TwoLevelCache) twoLevelCacheManager.getCache("product");
+        new TwoLevelCacheMeterBinderProvider().getMeterBinder(cache, Tags.of("cacheManager", "cacheManager")).bindTo(meterRegistry);
+
+        cache.get("1", () -> "value");
+        Assertions.assertEquals("value", cache.get("1", () -> "other"));
+
+        Assertions.assertEquals("value", remoteCacheManager.getCache("product").get("1").get());
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "product").tag("result", "hit").functionCounter().count());
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "product").tag("result", "miss").functionCounter().count());
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.load").tag("cache", "product").tag("result", "success").functionCounter().count());
+    }
+
+    @Test
+    void should_evict_both_levels_and_publish_the_invalidation() throws Exception {
+        Cache cache = twoLevelCacheManager.getCache("product");
+        cache.put("1", "value");
+
+        cache.evict("1");
+
+        Assertions.assertNull(cache.get("1"));
+        Assertions.assertNull(remoteCacheManager.getCache("product").get("1"));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(redisTemplate, Mockito.times(1)).convertAndSend(ArgumentMatchers.eq(CHANNEL), message.capture());
+        CacheInvalidationEvent event = objectMapper.readValue(message.getValue(), CacheInvalidationEvent.class);
+        Assertions.assertEquals("product", event.getCacheName());
+        Assertions.assertEquals(List.of("1"), event.getKeys());
+    }
+
+    @Test
+    void should_evict_local_copy_when_another_node_invalidates_it() throws Exception {
+        Cache cache = twoLevelCacheManager.getCache("product");
+        cache.put("1", "value");
+        remoteCacheManager.getCache("product").evict("1");
+
+        twoLevelCacheManager.onMessage(new DefaultMessage(CHANNEL.getBytes(), objectMapper.writeValueAsBytes(
+                CacheInvalidationEvent.builder().node("other").cacheName("product").keys(List.of("1")).build())), null);
+
+        Assertions.assertNull(cache.get("1"));
+    }
+
+    @Test
+    void should_ignore_its_own_invalidations() throws Exception {
+        Cache cache = twoLevelCacheManager.getCache("product");
+        cache.put("2", "value");
+        cache.evict("1");
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(redisTemplate).convertAndSend(ArgumentMatchers.eq(CHANNEL), message.capture());
+        remoteCacheManager.getCache("product").evict("2");
+
+        CacheInvalidationEvent ownEvent = objectMapper.readValue(message.getValue(), CacheInvalidationEvent.class);
+        ownEvent.setKeys(null);
+        twoLevelCacheManager.onMessage(new DefaultMessage(CHANNEL.getBytes(), objectMapper.writeValueAsBytes(ownEvent)), null);
+
+        Assertions.assertEquals("value", cache.get("2").get());
+    }
+
+    @Test
+    void should_keep_working_when_publishing_fails() {
+        Mockito.doThrow(new RuntimeException("connection refused")).when(redisTemplate)
+                .convertAndSend(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+        Cache cache = twoLevelCacheManager.getCache("product");
+        cache.put("1", "value");
+        remoteCacheManager.getCache("product").evict("1");
+
+        twoLevelCacheManager.invalidate("product", List.of("1"));
+
+        Assertions.assertNull(cache.get("1"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.waes.test.cache.serializer;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductsDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+class ProductCacheSerializerTest {
+
+    private static final String ID = "0184e0c9-c80c-7918-a8c1-c4e24c6b32c1";
+
+    private final ProductCacheSerializer serializer = new ProductCacheSerializer();
+
+    @Test
+    void should_write_and_read_product() {
+        ProductDTO productDTO = new ProductDTO().id(ID).name("product").price(new BigDecimal("12.01")).quantity(1).version(3L);
+
+        Assertions.assertEquals(productDTO, serializer.deserialize(serializer.serialize(productDTO)));
+    }
+
+    @Test
+    void should_write_and_read_product_without_optional_fields() {
+        ProductDTO productDTO = new ProductDTO().id(ID).name("product");
+
+        Assertions.assertEquals(productDTO, serializer.deserialize(serializer.serialize(productDTO)));
+    }
+
+    @Test
+    void should_write_and_read_page_of_products() {
+        ProductsDTO productsDTO = new ProductsDTO()
+                .bundle(List.of(new ProductDTO().id(ID).name("product").price(new BigDecimal("-0.5")).quantity(0).version(0L)))
+                .next("AYTgycgMeRiowcTiTGsywQ");
+
+        Assertions.assertEquals(productsDTO, serializer.deserialize(serializer.serialize(productsDTO)));
+        Assertions.assertEquals(new ProductsDTO(), serializer.deserialize(serializer.serialize(new ProductsDTO())));
+    }
+
+    @Test
+    void should_write_and_read_null_value() {
+        Assertions.assertEquals(NullValue.INSTANCE, serializer.deserialize(serializer.serialize(NullValue.INSTANCE)));
+    }
+
+    @Test
+    void should_be_smaller_than_json() {
+        ProductDTO productDTO = new ProductDTO().id(ID).name("product").price(new BigDecimal("12.01")).quantity(1).version(3L);
+
+        Assertions.assertTrue(serializer.serialize(productDTO).length * 3 < new GenericJackson2JsonRedisSerializer().serialize(productDTO).length);
+    }
+
+    @Test
+    void should_read_value_of_another_format_version_as_missing() {
+        byte[] bytes = serializer.serialize(new ProductDTO().id(ID));
+        bytes[0] = ProductCacheSerializer.VERSION + 1;
+
+        Assertions.assertNull(serializer.deserialize(bytes));
+        Assertions.assertNull(serializer.deserialize(null));
+    }
+
+    @Test
+    void should_fail_to_write_unsupported_value() {
+        Assertions.assertThrows(SerializationException.class, () -> serializer.serialize("value"));
+    }
+}
@@ -1,12 +1,18 @@
 package com.waes.test.controller;
 
 import com.waes.test.TestConstants;
+import com.waes.test.model.BatchResultDTO;
+import com.waes.test.model.BatchResultItemDTO;
+import com.waes.test.model.BatchUpdateProductDTO;
 import com.waes.test.model.ErrorDTO;
 import com.waes.test.model.NewProductDTO;
+import com.waes.test.model.ProductChangesDTO;
+import com.waes.test.model.ProductStatsDTO;
 import com.waes.test.model.ProductDTO;
 import com.waes.test.model.ProductsDTO;
 import com.waes.test.model.UpdateProductDTO;
 import io.restassured.RestAssured;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -21,6 +27,8 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static io.restassured.RestAssured.with;
 
@@ -31,6 +39,7 @@ import static io.restassured.RestAssured.with;
 class ProductsControllerTest {
 
     private static String id = "1";
+    private static List<String> batchIds = new ArrayList<>();
 
     @BeforeAll
     static void setup() {
@@ -80,7 +89,7 @@ class ProductsControllerTest {
         Assertions.assertEquals(new ProductsDTO()
                         .bundle(new ArrayList<>(Arrays.asList(new ProductDTO().name("product")
                                 .price(new BigDecimal("12.01"))
-                                .quantity(1).id(id))))
+                                .quantity(1).id(id).version(0L))))
                 , actual);
     }
 
@@ -89,32 +98,175 @@ class ProductsControllerTest {
     void should_get_200_and_be_able_to_get_product() {
         final String path = String.format(TestConstants.PRODUCTS_ID_PATH, id);
         ProductDTO actual = with().contentType("application/json").request("GET", path)
-                .then().statusCode(200).extract().as(ProductDTO.class);
+                .then().statusCode(200).header("ETag", "\"0\"").extract().as(ProductDTO.class);
         Assertions.assertEquals(new ProductDTO().name("product")
                         .price(new BigDecimal("12.01"))
-                        .quantity(1).id(id)
+                        .quantity(1).id(id).version(0L)
                 , actual);
     }
 
     @Test
     @Order(6)
+    void should_get_200_and_export_products_as_ndjson() {
+        final String path = TestConstants.PRODUCTS_EXPORT_PATH;
+        String actual = with().request("GET", path)
+                .then().statusCode(200).contentType("application/x-ndjson").extract().asString();
+        Assertions.assertEquals(String.format("{\"id\":\"%s\",\"name\":\"product\",\"price\":12.01,\"quantity\":1,\"version\":0}\n", id), actual);
+    }
+
+    @Test
+    @Order(6)
+    void should_get_200_and_export_only_filtered_products() {
+        final String path = TestConstants.PRODUCTS_EXPORT_PATH;
+        String actual = with().queryParam("priceMin", "12.02").queryParam("sort", "price").request("GET", path)
+                .then().statusCode(200).contentType("application/x-ndjson").extract().asString();
+        Assertions.assertEquals("", actual);
+    }
+
+    @Test
+    @Order(6)
+    void should_get_400_when_export_sort_is_not_valid() {
+        final String path = TestConstants.PRODUCTS_EXPORT_PATH;
+        ErrorDTO actual = with().queryParam("sort", "name").request("GET", path)
+                .then().statusCode(400).extract().as(ErrorDTO.class);
+        Assertions.assertEquals(new ErrorDTO().message("The provided sort name is not valid."), actual);
+    }
+
+    @Test
+    @Order(7)
     void should_get_200_and_be_able_to_update_product() {
         final String path = String.format(TestConstants.PRODUCTS_ID_PATH, id);
         final UpdateProductDTO newProductDTO = new UpdateProductDTO()
                 .name("product updated").price(new BigDecimal("12.02")).quantity(2);
-        ProductDTO actual = with().body(newProductDTO).contentType("application/json").request("PATCH", path)
-                .then().statusCode(200).extract().as(ProductDTO.class);
+        ProductDTO actual = with().body(newProductDTO).contentType("application/json").header("If-Match", "\"0\"").request("PATCH", path)
+                .then().statusCode(200).header("ETag", "\"1\"").extract().as(ProductDTO.class);
         Assertions.assertEquals("product updated", actual.getName());
         Assertions.assertEquals(new BigDecimal("12.02"), actual.getPrice());
         Assertions.assertEquals(2, actual.getQuantity());
+        Assertions.assertEquals(1L, actual.getVersion());
         Assertions.assertNotNull(actual.getId());
+
+        ErrorDTO conflict = with().body(newProductDTO).contentType("application/json").header("If-Match", "\"0\"").request("PATCH", path)
+                .then().statusCode(412).extract().as(ErrorDTO.class);
+        Assertions.assertEquals(new ErrorDTO().message(String.format("The Product with Id %s is not on the version 0 anymore.", id)), conflict);
     }
 
     @Test
-    @Order(7)
+    @Order(8)
     void should_get_200_and_delete_product() {
         final String path = String.format(TestConstants.PRODUCTS_ID_PATH, id);
-        with().contentType("application/json").request("DELETE", path)
-                .then().statusCode(204);
+        with().contentType("application/json").header("If-Match", "\"0\"").request("DELETE", path)
+                .then().statusCode(412).header("X-Last-Write", Matchers.nullValue());
+        with().contentType("application/json").header("If-Match", "\"1\"").request("DELETE", path)
+                .then().statusCode(204).header("X-Last-Write", Matchers.notNullValue()).cookie("last-write");
+    }
+
+    @Test
+    @Order(9)
+    void should_get_201_and_create_products_in_batch() {
+        final String path = TestConstants.PRODUCTS_BATCH_PATH;
+        final List<NewProductDTO> newProductDTOList = List.of(
+                new NewProductDTO().name("first").price(new BigDecimal("1.01")).quantity(1),
+                new NewProductDTO().name("second").price(new BigDecimal("2.02")).quantity(2));
+        ProductsDTO actual = with().body(newProductDTOList).contentType("application/json").request("POST", path)
+                .then().statusCode(201).extract().as(ProductsDTO.class);
+        Assertions.assertEquals(2, actual.getBundle().size());
+        Assertions.assertEquals("first", actual.getBundle().get(0).getName());
+        Assertions.assertEquals("second", actual.getBundle().get(1).getName());
+        actual.getBundle().forEach(productDTO -> Assertions.assertNotNull(productDTO.getId()));
+        actual.getBundle().forEach(productDTO -> batchIds.add(productDTO.getId()));
+    }
+
+    @Test
+    @Order(10)
+    void should_get_200_and_filter_products() {
+        final String path = TestConstants.PRODUCTS_PATH;
+        ProductsDTO actual = with().contentType("application/json")
+                .queryParam("priceMin", "2").queryParam("lowStock", true)
+                .request("GET", path)
+                .then().statusCode(200).extract().as(ProductsDTO.class);
+        Assertions.assertEquals(1, actual.getBundle().size());
+        Assertions.assertEquals("second", actual.getBundle().get(0).getName());
+
+        ErrorDTO error = with().contentType("application/json")
+                .queryParam("quantityMin", 5).queryParam("quantityMax", 1)
+                .request("GET", path)
+                .then().statusCode(400).extract().as(ErrorDTO.class);
+        Assertions.assertEquals(new ErrorDTO().message("The provided quantity range from 5 to 1 is not valid."), error);
+    }
+
+    @Test
+    @Order(11)
+    void should_get_200_and_lookup_products() {
+        final String path = TestConstants.PRODUCTS_LOOKUP_PATH;
+        final List<String> productIds = List.of(batchIds.get(1), id, batchIds.get(0));
+        ProductsDTO actual = with().body(productIds).contentType("application/json").request("POST", path)
+                .then().statusCode(200).extract().as(ProductsDTO.class);
+        Assertions.assertEquals(List.of("second", "first"),
+                actual.getBundle().stream().map(ProductDTO::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    @Order(12)
+    void should_get_200_and_update_products_in_batch() {
+        final String path = TestConstants.PRODUCTS_BATCH_PATH;
+        final List<BatchUpdateProductDTO> batchUpdateProductDTOList = List.of(
+                new BatchUpdateProductDTO().id(batchIds.get(0)).name("first-updated").price(new BigDecimal("1.11")).quantity(11),
+                new BatchUpdateProductDTO().id(id).name("missing").price(new BigDecimal("9.99")).quantity(9));
+        BatchResultDTO actual = with().body(batchUpdateProductDTOList).contentType("application/json").request("PATCH", path)
+                .then().statusCode(200).extract().as(BatchResultDTO.class);
+        Assertions.assertEquals(new BatchResultDTO()
+                .addBundleItem(new BatchResultItemDTO().id(batchIds.get(0)).status(BatchResultItemDTO.StatusEnum.UPDATED))
+                .addBundleItem(new BatchResultItemDTO().id(id).status(BatchResultItemDTO.StatusEnum.NOT_FOUND)), actual);
+
+        ProductDTO updated = with().contentType("application/json").request("GET", String.format(TestConstants.PRODUCTS_ID_PATH, batchIds.get(0)))
+                .then().statusCode(200).extract().as(ProductDTO.class);
+        Assertions.assertEquals("first-updated", updated.getName());
+        Assertions.assertEquals(11, updated.getQuantity());
+    }
+
+    @Test
+    @Order(13)
+    void should_get_200_and_delete_products_in_batch() {
+        final String path = TestConstants.PRODUCTS_BATCH_PATH;
+        final List<String> productIds = List.of(batchIds.get(0), batchIds.get(1), id);
+        BatchResultDTO actual = with().body(productIds).contentType("application/json").request("DELETE", path)
+                .then().statusCode(200).extract().as(BatchResultDTO.class);
+        Assertions.assertEquals(new BatchResultDTO()
+                .addBundleItem(new BatchResultItemDTO().id(batchIds.get(0)).status(BatchResultItemDTO.StatusEnum.DELETED))
+                .addBundleItem(new BatchResultItemDTO().id(batchIds.get(1)).status(BatchResultItemDTO.StatusEnum.DELETED))
+                .addBundleItem(new BatchResultItemDTO().id(id).status(BatchResultItemDTO.StatusEnum.NOT_FOUND)), actual);
+    }
+
+    @Test
+    @Order(14)
+    void should_get_200_and_get_product_changes_since_sequence() {
+        final String path = TestConstants.PRODUCTS_CHANGES_PATH;
+        ProductChangesDTO all = with().contentType("application/json").request("GET", path)
+                .then().statusCode(200).extract().as(ProductChangesDTO.class);
+        Assertions.assertEquals(3, all.getBundle().size());
+        all.getBundle().forEach(productChangeDTO -> Assertions.assertTrue(productChangeDTO.isDeleted()));
+        Assertions.assertEquals(all.getBundle().get(2).getSeq(), all.getNext());
+
+        ProductChangesDTO latest = with().contentType("application/json").queryParam("since", all.getBundle().get(1).getSeq())
+                .request("GET", path)
+                .then().statusCode(200).extract().as(ProductChangesDTO.class);
+        Assertions.assertEquals(List.of(all.getBundle().get(2)), latest.getBundle());
+
+        ProductChangesDTO empty = with().contentType("application/json").queryParam("since", all.getNext())
+                .request("GET", path)
+                .then().statusCode(200).extract().as(ProductChangesDTO.class);
+        Assertions.assertEquals(new ProductChangesDTO().bundle(List.of()).next(all.getNext()), empty);
+    }
+
+    @Test
+    @Order(15)
+    void should_get_200_and_get_empty_catalogue_stats() {
+        final String path = TestConstants.PRODUCTS_STATS_PATH;
+        ProductStatsDTO actual = with().contentType("application/json").request("GET", path)
+                .then().statusCode(200).extract().as(ProductStatsDTO.class);
+        Assertions.assertEquals(0L, actual.getProductCount());
+        Assertions.assertEquals(0L, actual.getTotalUnits());
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(actual.getTotalValue()));
     }
-}
\ No newline at end of file
+}
@@ -14,11 +14,16 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,7 +42,7 @@ class RestExceptionHandlerControllerTest {
     void setup() {
         mapper = new ObjectMapper();
         productService = mock(ProductService.class);
-        controller = new ProductsController(productService);
+        controller = new ProductsController(productService, mapper);
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setControllerAdvice(new RestExceptionHandlerController())
                 .build();
@@ -47,7 +52,7 @@ class RestExceptionHandlerControllerTest {
     void should_return_ErrorDTO_and_bad_request_when_BadRequestException_happens() throws Exception {
         final ErrorDTO expected = new ErrorDTO().message(MESSAGE);
 
-        Mockito.doThrow(new BadRequestException(MESSAGE)).when(productService).getProduct("1", false);
+        Mockito.doThrow(new BadRequestException(MESSAGE)).when(productService).getProduct("1");
 
         mockMvc.perform(get(String.format(TestConstants.PRODUCTS_ID_PATH, "1"))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -59,7 +64,7 @@ class RestExceptionHandlerControllerTest {
     void should_return_ErrorDTO_and_internal_error_when_InternalServerErrorException_happens() throws Exception {
         final ErrorDTO expected = new ErrorDTO().message(INTERNAL_SERVER_ERROR_MESSAGE);
 
-        Mockito.doThrow(new InternalServerErrorException(MESSAGE)).when(productService).getProduct("1", false);
+        Mockito.doThrow(new InternalServerErrorException(MESSAGE)).when(productService).getProduct("1");
 
         mockMvc.perform(get(String.format(TestConstants.PRODUCTS_ID_PATH, "1"))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -71,7 +76,7 @@ class RestExceptionHandlerControllerTest {
     void should_return_ErrorDTO_and_internal_error_when_InternalServerErrorException_happens_with_event_CREATE() throws Exception {
         final ErrorDTO expected = new ErrorDTO().message(INTERNAL_SERVER_ERROR_MESSAGE.concat(String.format(INTERNAL_SERVER_ERROR_CREATE_COMPLEMENT_MESSAGE, "1")));
 
-        Mockito.doThrow(new InternalServerErrorException(MESSAGE, "1", ActionEnum.CREATE)).when(productService).getProduct("1", false);
+        Mockito.doThrow(new InternalServerErrorException(MESSAGE, "1", ActionEnum.CREATE)).when(productService).getProduct("1");
 
         mockMvc.perform(get(String.format(TestConstants.PRODUCTS_ID_PATH, "1"))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -83,7 +88,7 @@ class RestExceptionHandlerControllerTest {
     void should_return_ErrorDTO_and_internal_error_when_InternalServerErrorException_happens_with_event_UPDATE() throws Exception {
         final ErrorDTO expected = new ErrorDTO().message(INTERNAL_SERVER_ERROR_MESSAGE.concat(INTERNAL_SERVER_ERROR_DELETE_UPDATE_COMPLEMENT_MESSAGE));
 
-        Mockito.doThrow(new InternalServerErrorException(MESSAGE, "1", ActionEnum.UPDATE)).when(productService).getProduct("1", false);
+        Mockito.doThrow(new InternalServerErrorException(MESSAGE, "1", ActionEnum.UPDATE)).when(productService).getProduct("1");
 
         mockMvc.perform(get(String.format(TestConstants.PRODUCTS_ID_PATH, "1"))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -95,7 +100,7 @@ class RestExceptionHandlerControllerTest {
     void should_return_ErrorDTO_and_internal_error_when_InternalServerErrorException_happens_with_event_DELETE() throws Exception {
         final ErrorDTO expected = new ErrorDTO().message(INTERNAL_SERVER_ERROR_MESSAGE.concat(INTERNAL_SERVER_ERROR_DELETE_UPDATE_COMPLEMENT_MESSAGE));
 
-        Mockito.doThrow(new InternalServerErrorException(MESSAGE, "1", ActionEnum.UPDATE)).when(productService).getProduct("1", false);
+        Mockito.doThrow(new InternalServerErrorException(MESSAGE, "1", ActionEnum.UPDATE)).when(productService).getProduct("1");
 
         mockMvc.perform(get(String.format(TestConstants.PRODUCTS_ID_PATH, "1"))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -107,11 +112,42 @@ class RestExceptionHandlerControllerTest {
     void should_return_ErrorDTO_and_internal_server_error_when_Exception_happens() throws Exception {
         final ErrorDTO expected = new ErrorDTO().message("Something went wrong. We are are working to fix it.");
 
-        Mockito.doThrow(new RuntimeException(MESSAGE)).when(productService).getProduct("1", false);
+        Mockito.doThrow(new RuntimeException(MESSAGE)).when(productService).getProduct("1");
 
         mockMvc.perform(get(String.format(TestConstants.PRODUCTS_ID_PATH, "1"))
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isInternalServerError())
                 .andExpect(mvcResult -> assertEquals(expected, mapper.readValue(mvcResult.getResponse().getContentAsString(), ErrorDTO.class)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_return_ErrorDTO_and_bad_request_when_async_downstream_product_is_missing() throws Exception {
+        final ErrorDTO expected = new ErrorDTO().message("Product not found with the provided Id");
+
+        Mockito.when(productService.getDownstreamProduct("1")).thenReturn(CompletableFuture.completedFuture(null));
+
+        MvcResult mvcResult = mockMvc.perform(get(String.format(TestConstants.DOWNSTREAM_PRODUCTS_ID_PATH, "1"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertEquals(expected, mapper.readValue(result.getResponse().getContentAsString(), ErrorDTO.class)));
+    }
+
+    @Test
+    void should_return_ErrorDTO_and_bad_request_when_downstream_product_is_missing() throws Exception {
+        final ErrorDTO expected = new ErrorDTO().message("Product not found with the provided Id");
+
+        Mockito.when(productService.getDownstreamProduct("1")).thenReturn(CompletableFuture.completedFuture(null));
+
+        MvcResult mvcResult = mockMvc.perform(get(String.format(TestConstants.PRODUCTS_ID_PATH, "1")).param("downstream", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertEquals(expected, mapper.readValue(result.getResponse().getContentAsString(), ErrorDTO.class)));
+        Mockito.verify(productService, Mockito.never()).getProduct("1");
+    }
+}
@@ -0,0 +1,73 @@
+package com.waes.test.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setup() {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(h2(PRIMARY_URL), h2(REPLICA_URL));
+        routingDataSource.afterPropertiesSet();
+        dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadYourWritesContext.clear();
+    }
+
+    @Test
+    void should_route_to_primary_outside_read_only_transactions() throws SQLException {
+        Assertions.assertEquals(PRIMARY_URL, urlOf(dataSource));
+    }
+
+    @Test
+    void should_route_read_only_transactions_to_replica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Assertions.assertEquals(REPLICA_URL, urlOf(dataSource));
+    }
+
+    @Test
+    void should_route_read_only_transactions_to_primary_when_reading_own_writes() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadYourWritesContext.requirePrimary();
+        Assertions.assertEquals(PRIMARY_URL, urlOf(dataSource));
+    }
+
+    @Test
+    void should_decide_the_route_on_first_use_of_the_connection() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            Assertions.assertEquals(REPLICA_URL, connection.getMetaData().getURL());
+        }
+    }
+
+    private String urlOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private DataSource h2(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,121 @@
+package com.waes.test.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import java.io.IOException;
+
+class ReadYourWritesInterceptorTest {
+
+    private final ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(60_000);
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWritesContext.clear();
+    }
+
+    @Test
+    void should_return_write_marker_after_successful_write() throws IOException {
+        MockHttpServletResponse response = write("PATCH", 200);
+
+        Assertions.assertNotNull(response.getHeader(ReadYourWritesInterceptor.LAST_WRITE_HEADER));
+        Assertions.assertTrue(response.getHeader(HttpHeaders.SET_COOKIE).startsWith(ReadYourWritesInterceptor.LAST_WRITE_COOKIE + "="));
+    }
+
+    @Test
+    void should_not_return_write_marker_after_failed_write() throws IOException {
+        MockHttpServletResponse response = write("DELETE", 412);
+
+        Assertions.assertNull(response.getHeader(ReadYourWritesInterceptor.LAST_WRITE_HEADER));
+        Assertions.assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    void should_read_from_primary_when_write_marker_header_is_echoed() throws IOException {
+        String lastWrite = write("POST", 201).getHeader(ReadYourWritesInterceptor.LAST_WRITE_HEADER);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products");
+        request.addHeader(ReadYourWritesInterceptor.LAST_WRITE_HEADER, lastWrite);
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        Assertions.assertTrue(ReadYourWritesContext.isPrimaryRequired());
+    }
+
+    @Test
+    void should_read_from_primary_when_write_marker_cookie_is_echoed() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products");
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.LAST_WRITE_COOKIE, String.valueOf(System.currentTimeMillis())));
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        Assertions.assertTrue(ReadYourWritesContext.isPrimaryRequired());
+    }
+
+    @Test
+    void should_read_from_replica_without_write_marker() {
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/products"), new MockHttpServletResponse(), null);
+        Assertions.assertFalse(ReadYourWritesContext.isPrimaryRequired());
+    }
+
+    @Test
+    void should_read_from_replica_when_write_marker_is_out_of_window() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products");
+        request.addHeader(ReadYourWritesInterceptor.LAST_WRITE_HEADER, String.valueOf(System.currentTimeMillis() - 120_000));
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        Assertions.assertFalse(ReadYourWritesContext.isPrimaryRequired());
+    }
+
+    @Test
+    void should_read_from_replica_when_write_marker_is_not_valid() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products");
+        request.addHeader(ReadYourWritesInterceptor.LAST_WRITE_HEADER, "yesterday");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        Assertions.assertFalse(ReadYourWritesContext.isPrimaryRequired());
+    }
+
+    @Test
+    void should_read_from_primary_when_write_marker_is_slightly_ahead() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products");
+        request.addHeader(ReadYourWritesInterceptor.LAST_WRITE_HEADER, String.valueOf(System.currentTimeMillis() + 500));
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        Assertions.assertTrue(ReadYourWritesContext.isPrimaryRequired());
+    }
+
+    @Test
+    void should_read_from_replica_when_write_marker_is_in_the_future() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products");
+        request.addHeader(ReadYourWritesInterceptor.LAST_WRITE_HEADER, String.valueOf(Long.MAX_VALUE));
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        Assertions.assertFalse(ReadYourWritesContext.isPrimaryRequired());
+    }
+
+    @Test
+    void should_read_from_replica_when_window_is_disabled() {
+        ReadYourWritesInterceptor disabled = new ReadYourWritesInterceptor(0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products");
+        request.addHeader(ReadYourWritesInterceptor.LAST_WRITE_HEADER, String.valueOf(System.currentTimeMillis()));
+
+        disabled.preHandle(request, new MockHttpServletResponse(), null);
+        Assertions.assertFalse(ReadYourWritesContext.isPrimaryRequired());
+        Assertions.assertFalse(disabled.supports(null, null));
+    }
+
+    private MockHttpServletResponse write(String method, int status) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/v1/products");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(status);
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+        interceptor.beforeBodyWrite(null, null, null, null, new ServletServerHttpRequest(request), serverResponse);
+        serverResponse.flush();
+        return response;
+    }
+}
@@ -7,6 +7,7 @@ import com.waes.test.model.ProductsDTO;
 import com.waes.test.model.UpdateProductDTO;
 import com.waes.test.model.event.ActionEnum;
 import com.waes.test.util.HttpUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +18,7 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,48 +27,108 @@ class SupplyChainIntegrationImplTest {
     @Mock
     private HttpUtils httpUtils;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private SupplyChainIntegration integration;
 
     private String url = "http://localhost/resource";
 
     @BeforeEach
     void setUp() {
-        integration = new SupplyChainIntegrationImpl("http://localhost", "/resource", httpUtils);
+        integration = new SupplyChainIntegrationImpl("http://localhost", "/resource", httpUtils, 600, 120, 100, meterRegistry);
     }
 
     @Test
     void should_get_empty_list_of_products() {
-        Mockito.when(httpUtils.executeCall(ArgumentMatchers.any(Supplier.class))).thenReturn(null);
+        Mockito.when(httpUtils.executeCallAsync(ArgumentMatchers.any(Supplier.class))).thenReturn(CompletableFuture.completedFuture(null));
         ProductsDTO expected = new ProductsDTO();
 
         ProductsDTO actual = integration.getProducts();
 
         Assertions.assertEquals(expected, actual);
-        Mockito.verify(httpUtils, Mockito.times(1)).executeCall(ArgumentMatchers.any(Supplier.class));
+        Mockito.verify(httpUtils, Mockito.times(1)).executeCallAsync(ArgumentMatchers.any(Supplier.class));
     }
 
     @Test
     void should_get_list_of_products() {
         ProductsDTO expected = new ProductsDTO().bundle(List.of(new ProductDTO()));
-        Mockito.when(httpUtils.executeCall(ArgumentMatchers.any(Supplier.class)))
-                .thenReturn(expected);
+        Mockito.when(httpUtils.executeCallAsync(ArgumentMatchers.any(Supplier.class)))
+                .thenReturn(CompletableFuture.completedFuture(expected));
 
         ProductsDTO actual = integration.getProducts();
 
         Assertions.assertEquals(expected, actual);
-        Mockito.verify(httpUtils, Mockito.times(1)).executeCall(ArgumentMatchers.any(Supplier.class));
+        Mockito.verify(httpUtils, Mockito.times(1)).executeCallAsync(ArgumentMatchers.any(Supplier.class));
     }
 
     @Test
     void should_get_product() {
         ProductDTO expected = new ProductDTO();
-        Mockito.when(httpUtils.executeCall(ArgumentMatchers.any(Supplier.class)))
-                .thenReturn(expected);
+        Mockito.when(httpUtils.executeCallAsync(ArgumentMatchers.any(Supplier.class)))
+                .thenReturn(CompletableFuture.completedFuture(expected));
+
+        ProductDTO actual = integration.getProduct("1");
 
+        Assertions.assertEquals(expected, actual);
+        Mockito.verify(httpUtils, Mockito.times(1)).executeCallAsync(ArgumentMatchers.any(Supplier.class));
+    }
+
+    @Test
+    void should_get_product_once_while_cached() {
+        ProductDTO expected = new ProductDTO().id("1");
+        Mockito.when(httpUtils.executeCallAsync(ArgumentMatchers.any(Supplier.class)))
+                .thenReturn(CompletableFuture.completedFuture(expected));
+
+        integration.getProduct("1");
         ProductDTO actual = integration.getProduct("1");
 
         Assertions.assertEquals(expected, actual);
+        Mockito.verify(httpUtils, Mockito.times(1)).executeCallAsync(ArgumentMatchers.any(Supplier.class));
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "supplyChainProduct").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void should_get_product_again_after_updating_it() {
+        ProductDTO expected = new ProductDTO().id("1");
+        Mockito.when(httpUtils.executeCallAsync(ArgumentMatchers.any(Supplier.class)))
+                .thenReturn(CompletableFuture.completedFuture(expected));
+
+        integration.getProduct("1");
+        integration.updateProduct(new UpdateProductDTO(), "1");
+        integration.getProduct("1");
+
+        Mockito.verify(httpUtils, Mockito.times(2)).executeCallAsync(ArgumentMatchers.any(Supplier.class));
+    }
+
+    @Test
+    void should_validate_product_directly_and_evict_it_when_missing() {
+        ProductDTO cached = new ProductDTO().id("1");
+        Mockito.when(httpUtils.executeCallAsync(ArgumentMatchers.any(Supplier.class)))
+                .thenReturn(CompletableFuture.completedFuture(cached));
+        Mockito.when(httpUtils.executeCall(ArgumentMatchers.any(Supplier.class)))
+                .thenThrow(new BadRequestException("We could not find a valid Product with the provided Id 1."));
+
+        integration.getProduct("1");
+        Assertions.assertThrows(BadRequestException.class, () -> integration.deleteProduct("1"));
+        integration.getProduct("1");
+
         Mockito.verify(httpUtils, Mockito.times(1)).executeCall(ArgumentMatchers.any(Supplier.class));
+        Mockito.verify(httpUtils, Mockito.times(2)).executeCallAsync(ArgumentMatchers.any(Supplier.class));
+        Mockito.verify(httpUtils, Mockito.never()).executeCallWithObserver(ArgumentMatchers.any(Supplier.class), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void should_get_product_without_blocking() {
+        ProductDTO expected = new ProductDTO().id("1");
+        CompletableFuture<ProductDTO> response = new CompletableFuture<>();
+        Mockito.when(httpUtils.executeCallAsync(ArgumentMatchers.any(Supplier.class)))
+                .thenReturn(response);
+
+        CompletableFuture<ProductDTO> actual = integration.getProductAsync("1");
+
+        Assertions.assertFalse(actual.isDone());
+        response.complete(expected);
+        Assertions.assertEquals(expected, actual.join());
     }
 
     @Test
@@ -0,0 +1,63 @@
+package com.waes.test.observer.impl;
+
+import com.waes.test.model.ProductDTO;
+import com.waes.test.model.event.ActionEnum;
+import com.waes.test.model.event.Event;
+import com.waes.test.model.event.EventTypeEnum;
+import com.waes.test.repository.OutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxPropagationObserverTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @InjectMocks
+    private OutboxPropagationObserver outboxPropagationObserver;
+
+    @Test
+    void should_store_event_on_the_outbox() {
+        ProductDTO productDTO = new ProductDTO().id("1").name("name")
+                .price(new BigDecimal("12.01")).quantity(1);
+        Event event = Event.builder()
+                .id("1").name("name")
+                .price(new BigDecimal("12.01"))
+                .quantity(1)
+                .action(ActionEnum.CREATE)
+                .eventType(EventTypeEnum.PROPAGATE)
+                .build();
+
+        outboxPropagationObserver.notifyObserver(productDTO, ActionEnum.CREATE, EventTypeEnum.PROPAGATE);
+
+        Mockito.verify(outboxRepository, Mockito.times(1)).saveAll(List.of(event));
+    }
+
+    @Test
+    void should_store_events_on_the_outbox_in_a_single_batch() {
+        List<ProductDTO> productDTOList = List.of(new ProductDTO().id("1"), new ProductDTO().id("2"));
+
+        outboxPropagationObserver.notifyObservers(productDTOList, ActionEnum.DELETE, EventTypeEnum.PROPAGATE);
+
+        Mockito.verify(outboxRepository, Mockito.times(1)).saveAll(List.of(
+                Event.builder().id("1").action(ActionEnum.DELETE).eventType(EventTypeEnum.PROPAGATE).build(),
+                Event.builder().id("2").action(ActionEnum.DELETE).eventType(EventTypeEnum.PROPAGATE).build()));
+    }
+
+    @Test
+    void should_not_store_anything_when_there_are_no_events() {
+        outboxPropagationObserver.notifyObservers(Collections.emptyList(), ActionEnum.UPDATE, EventTypeEnum.PROPAGATE);
+
+        Mockito.verify(outboxRepository, Mockito.never()).saveAll(ArgumentMatchers.anyList());
+    }
+}
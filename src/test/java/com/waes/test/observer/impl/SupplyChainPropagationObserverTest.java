@@ -1,24 +1,30 @@
 package com.waes.test.observer.impl;
 
+import com.amazonaws.SdkClientException;
 import com.amazonaws.services.sqs.AmazonSQS;
-import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.waes.test.model.ProductDTO;
 import com.waes.test.model.event.ActionEnum;
 import com.waes.test.model.event.Event;
 import com.waes.test.model.event.EventTypeEnum;
+import com.waes.test.model.event.OutboxEvent;
 import lombok.SneakyThrows;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.mockito.stubbing.Answer;
 
-import java.io.IOException;
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @ExtendWith(MockitoExtension.class)
 class SupplyChainPropagationObserverTest {
@@ -33,73 +39,59 @@ class SupplyChainPropagationObserverTest {
 
     @Test
     @SneakyThrows
-    void should_send_message_to_the_queue() {
-        ProductDTO productDTO = new ProductDTO().id("1").name("name")
-                .price(new BigDecimal("12.01")).quantity(1);
-        Event event = Event.builder()
-                .id("1").name("name")
-                .price(new BigDecimal("12.01"))
-                .quantity(1)
-                .action(ActionEnum.CREATE)
-                .eventType(EventTypeEnum.PROPAGATE)
-                .build();
+    void should_send_events_in_batch_deduplicated_by_outbox_id() {
+        OutboxEvent first = outboxEvent(7L, "1");
+        OutboxEvent second = outboxEvent(8L, "2");
+        ArgumentCaptor<SendMessageBatchRequest> request = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+
+        Mockito.when(mapper.writeValueAsString(ArgumentMatchers.any(Event.class))).thenReturn("{}");
+        Mockito.when(sqs.sendMessageBatch(request.capture())).thenReturn(new SendMessageBatchResult());
+
+        Assertions.assertEquals(List.of(), supplyChainPropagationObserver.sendEvents(List.of(first, second)));
+        Assertions.assertEquals(List.of("7", "8"), request.getValue().getEntries().stream()
+                .map(SendMessageBatchRequestEntry::getMessageDeduplicationId)
+                .collect(Collectors.toList()));
+    }
 
-        Mockito.when(mapper.writeValueAsString(event)).thenReturn("{}");
-        Mockito.when(sqs.sendMessage(ArgumentMatchers.any(SendMessageRequest.class))).thenReturn(null);
+    @Test
+    @SneakyThrows
+    void should_return_only_the_events_rejected_when_sending_in_batch() {
+        OutboxEvent first = outboxEvent(1L, "1");
+        OutboxEvent second = outboxEvent(2L, "2");
 
-        supplyChainPropagationObserver.notifyObserver(productDTO, ActionEnum.CREATE, EventTypeEnum.PROPAGATE);
+        Mockito.when(mapper.writeValueAsString(ArgumentMatchers.any(Event.class))).thenReturn("{}");
+        Mockito.when(sqs.sendMessageBatch(ArgumentMatchers.any(SendMessageBatchRequest.class)))
+                .thenReturn(new SendMessageBatchResult().withFailed(new BatchResultErrorEntry().withId("1").withSenderFault(true)));
 
-        Mockito.verify(mapper, Mockito.times(1)).writeValueAsString(event);
-        Mockito.verify(sqs, Mockito.times(1)).sendMessage(ArgumentMatchers.any(SendMessageRequest.class));
+        Assertions.assertEquals(List.of(second), supplyChainPropagationObserver.sendEvents(List.of(first, second)));
     }
 
     @Test
     @SneakyThrows
-    void should_send_fail_to_message_to_the_queue_due_to_serialization_error() {
-        ProductDTO productDTO = new ProductDTO().id("1").name("name")
-                .price(new BigDecimal("12.01")).quantity(1);
-        Event event = Event.builder()
-                .id("1").name("name")
-                .price(new BigDecimal("12.01"))
-                .quantity(1)
-                .action(ActionEnum.CREATE)
-                .eventType(EventTypeEnum.PROPAGATE)
-                .build();
-
-        Answer<String> answer = invocation -> {
-            throw new IOException("failed");
-        };
+    void should_return_the_events_that_could_not_be_serialized_without_sending_them() {
+        OutboxEvent outboxEvent = outboxEvent(1L, "1");
 
-        Mockito.when(mapper.writeValueAsString(event)).thenAnswer(answer);
+        Mockito.when(mapper.writeValueAsString(outboxEvent.getEvent())).thenThrow(new JsonProcessingException("failed") {
+        });
 
-        supplyChainPropagationObserver.notifyObserver(productDTO, ActionEnum.CREATE, EventTypeEnum.PROPAGATE);
-
-        Mockito.verify(mapper, Mockito.times(1)).writeValueAsString(event);
-        Mockito.verify(sqs, Mockito.times(0)).sendMessage(ArgumentMatchers.any());
+        Assertions.assertEquals(List.of(outboxEvent), supplyChainPropagationObserver.sendEvents(List.of(outboxEvent)));
+        Mockito.verifyNoInteractions(sqs);
     }
 
     @Test
-    @SneakyThrows
-    void should_send_fail_to_message_to_the_queue_due_to_unknown_error() {
-        ProductDTO productDTO = new ProductDTO().id("1").name("name")
-                .price(new BigDecimal("12.01")).quantity(1);
-        Event event = Event.builder()
-                .id("1").name("name")
-                .price(new BigDecimal("12.01"))
-                .quantity(1)
-                .action(ActionEnum.CREATE)
-                .eventType(EventTypeEnum.PROPAGATE)
-                .build();
+    void should_throw_when_the_batch_request_fails_while_sending() throws Exception {
+        OutboxEvent outboxEvent = outboxEvent(1L, "1");
 
-        Answer<String> answer = invocation -> {
-            throw new Exception("failed");
-        };
+        Mockito.when(mapper.writeValueAsString(outboxEvent.getEvent())).thenReturn("{}");
+        Mockito.when(sqs.sendMessageBatch(ArgumentMatchers.any(SendMessageBatchRequest.class))).thenThrow(new SdkClientException("unreachable"));
 
-        Mockito.when(mapper.writeValueAsString(event)).thenAnswer(answer);
-
-        supplyChainPropagationObserver.notifyObserver(productDTO, ActionEnum.CREATE, EventTypeEnum.PROPAGATE);
+        Assertions.assertThrows(SdkClientException.class, () -> supplyChainPropagationObserver.sendEvents(List.of(outboxEvent)));
+    }
 
-        Mockito.verify(mapper, Mockito.times(1)).writeValueAsString(event);
-        Mockito.verify(sqs, Mockito.times(0)).sendMessage(ArgumentMatchers.any());
+    private OutboxEvent outboxEvent(Long id, String productId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .event(Event.builder().id(productId).action(ActionEnum.CREATE).eventType(EventTypeEnum.PROPAGATE).build())
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.waes.test.repository;
+
+import com.waes.test.model.ProductChangeDTO;
+import com.waes.test.util.UuidUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductChangeRepositoryImplTest {
+
+    private static final UUID LONG_TRANSACTION_ID = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID SHORT_TRANSACTION_ID = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM product_change WHERE product_id IN (?, ?)",
+                UuidUtils.toBytes(LONG_TRANSACTION_ID), UuidUtils.toBytes(SHORT_TRANSACTION_ID));
+    }
+
+    @Test
+    void should_not_skip_the_change_of_a_long_transaction_committed_after_a_reader_advanced() {
+        long since = repository.findLastSequence();
+        TransactionTemplate longTransaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate shortTransaction = new TransactionTemplate(transactionManager);
+        shortTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<ProductChangeDTO> readWhileLongTransactionRuns = longTransaction.execute(status -> {
+            repository.recordChanges(List.of(LONG_TRANSACTION_ID), true);
+            shortTransaction.executeWithoutResult(innerStatus -> repository.recordChanges(List.of(SHORT_TRANSACTION_ID), true));
+            return shortTransaction.execute(innerStatus -> repository.findChanges(since, 10));
+        });
+        Assertions.assertEquals(List.of(SHORT_TRANSACTION_ID.toString()), idsOf(readWhileLongTransactionRuns));
+
+        long next = readWhileLongTransactionRuns.get(0).getSeq();
+        Assertions.assertEquals(List.of(LONG_TRANSACTION_ID.toString()), idsOf(repository.findChanges(next, 10)));
+    }
+
+    private List<String> idsOf(List<ProductChangeDTO> productChangeDTOList) {
+        return productChangeDTOList.stream().map(ProductChangeDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,119 @@
+package com.waes.test.scheduler;
+
+import com.waes.test.model.event.ActionEnum;
+import com.waes.test.model.event.Event;
+import com.waes.test.model.event.EventTypeEnum;
+import com.waes.test.model.event.OutboxEvent;
+import com.waes.test.observer.impl.SupplyChainPropagationObserver;
+import com.waes.test.repository.OutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+    @Mock
+    private SupplyChainPropagationObserver sqsPropagationObserver;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setup() {
+        Mockito.when(transactionTemplate.execute(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        outboxRelay = new OutboxRelay(outboxRepository, sqsPropagationObserver, transactionTemplate, 12, 60_000, 3);
+    }
+
+    @Test
+    void should_relay_events_in_sqs_batches_and_delete_them() {
+        List<OutboxEvent> outboxEvents = outboxEvents(1, 12);
+        Mockito.when(outboxRepository.findOldest(12)).thenReturn(outboxEvents).thenReturn(Collections.emptyList());
+        Mockito.when(sqsPropagationObserver.sendEvents(ArgumentMatchers.anyList())).thenReturn(Collections.emptyList());
+
+        outboxRelay.relay();
+
+        List<Long> ids = LongStream.rangeClosed(1, 12).boxed().collect(Collectors.toList());
+        Mockito.verify(outboxRepository, Mockito.times(1)).claimAll(ids, 60_000);
+        Mockito.verify(sqsPropagationObserver, Mockito.times(2)).sendEvents(ArgumentMatchers.anyList());
+        Mockito.verify(outboxRepository, Mockito.times(1)).deleteAll(ids);
+        Mockito.verify(outboxRepository, Mockito.never()).releaseAll(ArgumentMatchers.anyList());
+        Mockito.verify(outboxRepository, Mockito.times(2)).findOldest(12);
+    }
+
+    @Test
+    void should_delete_only_the_events_before_the_first_failed_one_and_release_the_rest() {
+        List<OutboxEvent> outboxEvents = outboxEvents(1, 12);
+        Mockito.when(outboxRepository.findOldest(12)).thenReturn(outboxEvents);
+        Mockito.when(sqsPropagationObserver.sendEvents(ArgumentMatchers.anyList()))
+                .thenReturn(List.of(outboxEvents.get(2)));
+
+        outboxRelay.relay();
+
+        Mockito.verify(sqsPropagationObserver, Mockito.times(1)).sendEvents(ArgumentMatchers.anyList());
+        Mockito.verify(outboxRepository, Mockito.times(1)).deleteAll(List.of(1L, 2L));
+        Mockito.verify(outboxRepository, Mockito.times(1)).releaseAll(LongStream.rangeClosed(3, 12).boxed().collect(Collectors.toList()));
+        Mockito.verify(outboxRepository, Mockito.times(1)).recordFailures(List.of(3L));
+        Mockito.verify(outboxRepository, Mockito.times(1)).moveToDeadLetter(3);
+    }
+
+    @Test
+    void should_release_events_without_counting_attempts_when_sqs_cannot_be_reached() {
+        List<OutboxEvent> outboxEvents = outboxEvents(1, 12);
+        Mockito.when(outboxRepository.findOldest(12)).thenReturn(outboxEvents);
+        Mockito.when(sqsPropagationObserver.sendEvents(ArgumentMatchers.anyList())).thenThrow(new IllegalStateException("unreachable"));
+
+        outboxRelay.relay();
+
+        Mockito.verify(outboxRepository, Mockito.never()).deleteAll(ArgumentMatchers.anyList());
+        Mockito.verify(outboxRepository, Mockito.times(1)).releaseAll(LongStream.rangeClosed(1, 12).boxed().collect(Collectors.toList()));
+        Mockito.verify(outboxRepository, Mockito.never()).recordFailures(ArgumentMatchers.anyList());
+        Mockito.verify(outboxRepository, Mockito.never()).moveToDeadLetter(ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void should_not_claim_events_while_the_oldest_one_is_claimed_by_another_relay() {
+        List<OutboxEvent> outboxEvents = outboxEvents(1, 12);
+        outboxEvents.get(0).setClaimed(true);
+        Mockito.when(outboxRepository.findOldest(12)).thenReturn(outboxEvents);
+
+        outboxRelay.relay();
+
+        Mockito.verify(outboxRepository, Mockito.never()).claimAll(ArgumentMatchers.anyList(), ArgumentMatchers.anyLong());
+        Mockito.verifyNoInteractions(sqsPropagationObserver);
+    }
+
+    @Test
+    void should_do_nothing_when_the_outbox_is_empty() {
+        Mockito.when(outboxRepository.findOldest(12)).thenReturn(Collections.emptyList());
+
+        outboxRelay.relay();
+
+        Mockito.verifyNoInteractions(sqsPropagationObserver);
+        Mockito.verify(outboxRepository, Mockito.never()).deleteAll(ArgumentMatchers.anyList());
+    }
+
+    private List<OutboxEvent> outboxEvents(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(id -> OutboxEvent.builder()
+                        .id(id)
+                        .event(Event.builder().id(String.valueOf(id)).action(ActionEnum.CREATE).eventType(EventTypeEnum.PROPAGATE).build())
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
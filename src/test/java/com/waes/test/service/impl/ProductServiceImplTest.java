@@ -1,37 +1,69 @@
 package com.waes.test.service.impl;
 
+import com.waes.test.cache.ProductCache;
+import com.waes.test.cache.ProductIdFilter;
+import com.waes.test.datasource.ReadYourWritesContext;
 import com.waes.test.exception.BadRequestException;
+import com.waes.test.exception.PreconditionFailedException;
 import com.waes.test.integration.SupplyChainIntegration;
+import com.waes.test.model.BatchResultDTO;
+import com.waes.test.model.BatchResultItemDTO;
+import com.waes.test.model.BatchUpdateProductDTO;
 import com.waes.test.model.NewProductDTO;
+import com.waes.test.model.ProductChangeDTO;
+import com.waes.test.model.ProductChangesDTO;
 import com.waes.test.model.ProductDTO;
+import com.waes.test.model.ProductStatsDTO;
 import com.waes.test.model.ProductsDTO;
 import com.waes.test.model.UpdateProductDTO;
 import com.waes.test.model.entity.ProductEntity;
 import com.waes.test.model.event.ActionEnum;
 import com.waes.test.model.event.EventTypeEnum;
+import com.waes.test.model.filter.ProductFilter;
+import com.waes.test.model.filter.ProductSortEnum;
 import com.waes.test.observer.Observer;
 import com.waes.test.repository.ProductRepository;
+import com.waes.test.util.CursorUtils;
 import com.waes.test.util.ProductsMapperUtils;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.JdkIdGenerator;
 
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 class ProductServiceImplTest {
 
+    private static final UUID FIRST_ID = UUID.fromString("0184e0c9-c80c-7918-a8c1-c4e24c6b32c1");
+    private static final UUID SECOND_ID = UUID.fromString("0184e0c9-c80c-7918-a8c1-c4e24c6b32c2");
+    private static final UUID THIRD_ID = UUID.fromString("0184e0c9-c80c-7918-a8c1-c4e24c6b32c3");
+
     @Captor
     ArgumentCaptor<ProductEntity> productEntityArgumentCaptor;
     @Mock
@@ -40,68 +72,354 @@ class ProductServiceImplTest {
     private SupplyChainIntegration supplyChainIntegration;
     @Mock
     private Observer<ProductDTO> observer;
-    @InjectMocks
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ProductCache productCache;
+    @Mock
+    private ProductIdFilter productIdFilter;
     private ProductServiceImpl service;
 
+    @BeforeEach
+    void setUp() {
+        Mockito.lenient().when(productIdFilter.mightExist(ArgumentMatchers.any())).thenReturn(true);
+        Mockito.lenient().when(productIdFilter.isMissing(ArgumentMatchers.any())).thenReturn(false);
+        service = new ProductServiceImpl(repository, supplyChainIntegration, observer, entityManager, productCache, productIdFilter, new JdkIdGenerator(), 2, 3, 10, 2, 3);
+    }
+
     @Test
     void should_get_products_from_downstream() {
         ProductsDTO expected = new ProductsDTO();
-        Mockito.when(supplyChainIntegration.getProducts()).thenReturn(expected);
-
-        ProductsDTO actual = service.getProducts(true);
+        Mockito.when(supplyChainIntegration.getProductsAsync()).thenReturn(CompletableFuture.completedFuture(expected));
 
-        assertEquals(expected, actual);
-        Mockito.verify(supplyChainIntegration, Mockito.times(1)).getProducts();
+        assertEquals(expected, service.getDownstreamProducts().join());
+        Mockito.verify(supplyChainIntegration, Mockito.never()).getProducts();
     }
 
     @Test
     void should_get_products_locally() {
+        loadPagesWithoutCache();
         ProductsDTO expected = new ProductsDTO();
-        Iterable<ProductEntity> iterable = Collections.emptyList();
-        Mockito.when(repository.findAll()).thenReturn(iterable);
+        Mockito.when(repository.findPage(new ProductFilter(), null, 3)).thenReturn(Collections.emptyList());
 
-        ProductsDTO actual = service.getProducts(false);
+        ProductsDTO actual = service.getProducts(null, null, new ProductFilter());
 
         assertEquals(expected, actual);
-        Mockito.verify(repository, Mockito.times(1)).findAll();
+        Mockito.verify(repository, Mockito.times(1)).findPage(new ProductFilter(), null, 3);
     }
 
     @Test
-    void should_get_product_from_downstream() {
-        ProductDTO expected = new ProductDTO();
-        Mockito.when(supplyChainIntegration.getProduct("1")).thenReturn(expected);
+    void should_load_products_page_to_fill_cache_without_forcing_primary() {
+        loadPagesWithoutCache();
+        Mockito.when(repository.findPage(new ProductFilter(), null, 3)).thenAnswer(invocation -> {
+            assertFalse(ReadYourWritesContext.isPrimaryRequired());
+            return Collections.emptyList();
+        });
+
+        assertEquals(new ProductsDTO(), service.getProducts(null, null, new ProductFilter()));
+        assertFalse(ReadYourWritesContext.isPrimaryRequired());
+    }
+
+    @Test
+    void should_get_first_page_of_products_locally_with_next_cursor() {
+        loadPagesWithoutCache();
+        List<ProductDTO> productDTOList = List.of(new ProductDTO().id(FIRST_ID.toString()),
+                new ProductDTO().id(SECOND_ID.toString()),
+                new ProductDTO().id(THIRD_ID.toString()));
+        Mockito.when(repository.findPage(new ProductFilter(), null, 3)).thenReturn(productDTOList);
+
+        ProductsDTO actual = service.getProducts(null, null, new ProductFilter());
+
+        assertEquals(List.of(new ProductDTO().id(FIRST_ID.toString()), new ProductDTO().id(SECOND_ID.toString())), actual.getBundle());
+        assertEquals(CursorUtils.encode(SECOND_ID), actual.getNext());
+    }
+
+    @Test
+    void should_get_last_page_of_products_locally_from_cursor() {
+        loadPagesWithoutCache();
+        Mockito.when(repository.findPage(new ProductFilter(), SECOND_ID, 4))
+                .thenReturn(List.of(new ProductDTO().id(THIRD_ID.toString())));
+
+        ProductsDTO actual = service.getProducts(10, CursorUtils.encode(SECOND_ID), new ProductFilter());
+
+        assertEquals(List.of(new ProductDTO().id(THIRD_ID.toString())), actual.getBundle());
+        assertNull(actual.getNext());
+    }
+
+    @Test
+    void should_get_low_stock_products_locally_bounding_quantity_by_threshold() {
+        loadPagesWithoutCache();
+        ProductFilter productFilter = ProductFilter.builder().priceMin(BigDecimal.ONE).quantityMax(20).lowStock(true).build();
+        ProductFilter resolvedFilter = ProductFilter.builder().priceMin(BigDecimal.ONE).quantityMax(10).build();
+        Mockito.when(repository.findPage(resolvedFilter, null, 3)).thenReturn(Collections.emptyList());
+
+        ProductsDTO actual = service.getProducts(null, null, productFilter);
+
+        assertEquals(new ProductsDTO(), actual);
+        Mockito.verify(repository, Mockito.times(1)).findPage(resolvedFilter, null, 3);
+    }
+
+    @Test
+    void should_get_cached_page_of_products_locally_without_querying() {
+        ProductsDTO expected = new ProductsDTO().bundle(List.of(new ProductDTO().id(FIRST_ID.toString())));
+        Mockito.when(productCache.getPage(ArgumentMatchers.eq(String.format("2:%s:%s", SECOND_ID, new ProductFilter())), ArgumentMatchers.any()))
+                .thenReturn(expected);
 
-        ProductDTO actual = service.getProduct("1", true);
+        ProductsDTO actual = service.getProducts(null, CursorUtils.encode(SECOND_ID), new ProductFilter());
 
         assertEquals(expected, actual);
-        Mockito.verify(supplyChainIntegration, Mockito.times(1)).getProduct("1");
+        Mockito.verifyNoInteractions(repository);
     }
 
     @Test
-    void should_get_product_locally() {
+    void should_fail_to_get_products_locally_when_range_is_not_valid() {
+        ProductFilter productFilter = ProductFilter.builder().priceMin(BigDecimal.TEN).priceMax(BigDecimal.ONE).build();
+
+        assertThrows(BadRequestException.class, () -> service.getProducts(null, null, productFilter));
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    void should_fail_to_get_products_locally_when_limit_is_not_positive() {
+        assertThrows(BadRequestException.class, () -> service.getProducts(0, null, new ProductFilter()));
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    void should_export_products_from_projection() {
+        ProductDTO first = new ProductDTO().id(FIRST_ID.toString());
+        ProductDTO second = new ProductDTO().id(SECOND_ID.toString());
+        Mockito.doAnswer(invocation -> {
+            Consumer<ProductDTO> consumer = invocation.getArgument(2);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(repository).exportAll(ArgumentMatchers.any(), ArgumentMatchers.eq(ProductSortEnum.PRICE), ArgumentMatchers.any());
+        List<ProductDTO> exported = new ArrayList<>();
+
+        service.exportProducts(new ProductFilter(), "price", exported::add);
+
+        assertEquals(List.of(first, second), exported);
+        Mockito.verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void should_fail_to_export_products_when_sort_is_not_valid() {
+        assertThrows(BadRequestException.class, () -> service.exportProducts(new ProductFilter(), "name", product -> { }));
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    void should_get_product_changes_with_last_sequence_as_next() {
+        List<ProductChangeDTO> productChangeDTOList = List.of(
+                new ProductChangeDTO().seq(4L).id(FIRST_ID.toString()).deleted(false).product(new ProductDTO().id(FIRST_ID.toString())),
+                new ProductChangeDTO().seq(7L).id(SECOND_ID.toString()).deleted(true));
+        Mockito.when(repository.findChanges(3L, 2)).thenReturn(productChangeDTOList);
+
+        ProductChangesDTO actual = service.getProductChanges(3L, null);
+
+        assertEquals(new ProductChangesDTO().bundle(productChangeDTOList).next(7L), actual);
+    }
+
+    @Test
+    void should_get_no_product_changes_keeping_since_as_next() {
+        Mockito.when(repository.findChanges(7L, 3)).thenReturn(Collections.emptyList());
+
+        ProductChangesDTO actual = service.getProductChanges(7L, 5);
+
+        assertEquals(new ProductChangesDTO().bundle(Collections.emptyList()).next(7L), actual);
+    }
+
+    @Test
+    void should_fail_to_get_product_changes_when_since_is_negative() {
+        assertThrows(BadRequestException.class, () -> service.getProductChanges(-1L, null));
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    void should_get_product_stats() {
+        ProductStatsDTO productStatsDTO = new ProductStatsDTO().productCount(2L).totalUnits(5L).totalValue(new BigDecimal("12.50"));
+        Mockito.when(repository.findStats()).thenReturn(productStatsDTO);
+
+        assertEquals(productStatsDTO, service.getProductStats());
+    }
+
+    @Test
+    void should_rebuild_product_stats() {
+        service.rebuildProductStats();
+
+        Mockito.verify(repository, Mockito.times(1)).rebuildStats();
+    }
+
+    @Test
+    void should_warm_up_product_cache_with_last_written_products() {
+        List<ProductDTO> productDTOList = List.of(new ProductDTO().id(FIRST_ID.toString()), new ProductDTO().id(SECOND_ID.toString()));
+        Mockito.when(repository.findLastWritten(2)).thenReturn(productDTOList);
+
+        service.warmUpProductCache(2);
+
+        Mockito.verify(productCache, Mockito.times(1)).putAll(productDTOList);
+    }
+
+    @Test
+    void should_lookup_products_querying_only_the_ones_not_cached() {
+        ProductDTO first = new ProductDTO().id(FIRST_ID.toString());
+        ProductDTO second = new ProductDTO().id(SECOND_ID.toString());
+        Mockito.when(productCache.getAll(List.of(SECOND_ID, FIRST_ID, THIRD_ID))).thenReturn(Map.of(FIRST_ID, first));
+        Mockito.when(repository.findProducts(List.of(SECOND_ID, THIRD_ID))).thenReturn(List.of(second));
+
+        ProductsDTO actual = service.lookupProducts(List.of(SECOND_ID.toString(), FIRST_ID.toString(), THIRD_ID.toString()));
+
+        assertEquals(new ProductsDTO().bundle(List.of(second, first)), actual);
+        Mockito.verify(productCache, Mockito.times(1)).fillAll(List.of(second));
+        Mockito.verify(productIdFilter, Mockito.times(1)).markMissing(THIRD_ID);
+    }
+
+    @Test
+    void should_lookup_products_unknown_to_filter_on_primary_without_the_cache() {
+        ProductDTO first = new ProductDTO().id(FIRST_ID.toString());
+        Mockito.when(productIdFilter.mightExist(FIRST_ID)).thenReturn(false);
+        Mockito.when(productIdFilter.isMissing(SECOND_ID)).thenReturn(true);
+        Mockito.when(productCache.getAll(List.of())).thenReturn(Map.of());
+        Mockito.when(repository.findProducts(List.of(FIRST_ID))).thenReturn(List.of(first));
+
+        ProductsDTO actual = service.lookupProducts(List.of(FIRST_ID.toString(), SECOND_ID.toString()));
+
+        assertEquals(new ProductsDTO().bundle(List.of(first)), actual);
+        Mockito.verify(productIdFilter, Mockito.times(1)).addAll(Set.of(FIRST_ID));
+    }
+
+    @Test
+    void should_lookup_products_not_cached_on_replica_and_confirm_the_ones_not_found_on_primary() {
+        Mockito.when(productCache.getAll(List.of(FIRST_ID))).thenReturn(Map.of());
+        Mockito.when(repository.findProducts(List.of(FIRST_ID))).thenAnswer(invocation -> {
+            assertFalse(ReadYourWritesContext.isPrimaryRequired());
+            return List.of();
+        }).thenAnswer(invocation -> {
+            assertTrue(ReadYourWritesContext.isPrimaryRequired());
+            return List.of();
+        });
+
+        assertEquals(new ProductsDTO().bundle(List.of()), service.lookupProducts(List.of(FIRST_ID.toString())));
+        assertFalse(ReadYourWritesContext.isPrimaryRequired());
+        Mockito.verify(repository, Mockito.times(2)).findProducts(List.of(FIRST_ID));
+        Mockito.verify(productIdFilter, Mockito.times(1)).markMissing(FIRST_ID);
+    }
+
+    @Test
+    void should_lookup_products_once_each_without_querying_when_all_are_cached() {
+        ProductDTO first = new ProductDTO().id(FIRST_ID.toString());
+        Mockito.when(productCache.getAll(List.of(FIRST_ID))).thenReturn(Map.of(FIRST_ID, first));
+
+        ProductsDTO actual = service.lookupProducts(List.of(FIRST_ID.toString(), "1", FIRST_ID.toString()));
+
+        assertEquals(new ProductsDTO().bundle(List.of(first)), actual);
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    void should_fail_to_lookup_products_when_batch_is_too_large() {
+        List<String> productIds = List.of(FIRST_ID.toString(), SECOND_ID.toString(), THIRD_ID.toString(), FIRST_ID.toString());
+
+        assertThrows(BadRequestException.class, () -> service.lookupProducts(productIds));
+        Mockito.verifyNoInteractions(repository, productCache);
+    }
+
+    @Test
+    void should_get_product_from_downstream() {
         ProductDTO expected = new ProductDTO();
-        Optional<ProductEntity> optional = Optional.of(new ProductEntity());
-        Mockito.when(repository.findById("1")).thenReturn(optional);
+        Mockito.when(supplyChainIntegration.getProductAsync("1")).thenReturn(CompletableFuture.completedFuture(expected));
+
+        assertEquals(expected, service.getDownstreamProduct("1").join());
+        Mockito.verify(supplyChainIntegration, Mockito.never()).getProduct("1");
+    }
 
-        ProductDTO actual = service.getProduct("1", false);
+    @Test
+    void should_get_product_locally() {
+        ProductDTO expected = new ProductDTO().id(FIRST_ID.toString());
+        Mockito.when(repository.findProductById(FIRST_ID)).thenReturn(Optional.of(expected));
+
+        ProductDTO actual = service.getProduct(FIRST_ID.toString());
 
         assertEquals(expected, actual);
-        Mockito.verify(repository, Mockito.times(1)).findById("1");
+        Mockito.verify(repository, Mockito.times(1)).findProductById(FIRST_ID);
+    }
+
+    @Test
+    void should_get_product_locally_to_fill_cache_without_forcing_primary() {
+        ProductDTO expected = new ProductDTO().id(FIRST_ID.toString());
+        Mockito.when(repository.findProductById(FIRST_ID)).thenAnswer(invocation -> {
+            assertFalse(ReadYourWritesContext.isPrimaryRequired());
+            return Optional.of(expected);
+        });
+
+        assertEquals(expected, service.getProduct(FIRST_ID.toString()));
+        Mockito.verify(repository, Mockito.times(0)).findProducts(ArgumentMatchers.any());
+    }
+
+    @Test
+    void should_get_product_locally_from_primary_when_not_found_on_replica() {
+        ProductDTO expected = new ProductDTO().id(FIRST_ID.toString());
+        Mockito.when(repository.findProductById(FIRST_ID)).thenReturn(Optional.empty());
+        Mockito.when(repository.findProducts(List.of(FIRST_ID))).thenAnswer(invocation -> {
+            assertTrue(ReadYourWritesContext.isPrimaryRequired());
+            return List.of(expected);
+        });
+
+        assertEquals(expected, service.getProduct(FIRST_ID.toString()));
+        Mockito.verify(productIdFilter, Mockito.times(0)).markMissing(FIRST_ID);
     }
 
     @Test
     void should_get_product_locally_and_throw_exception_when_not_found() {
-        Optional<ProductEntity> optional = Optional.empty();
-        Mockito.when(repository.findById("1")).thenReturn(optional);
+        Mockito.when(repository.findProductById(FIRST_ID)).thenReturn(Optional.empty());
+
+        assertThrows(BadRequestException.class, () -> service.getProduct(FIRST_ID.toString()));
+        Mockito.verify(repository, Mockito.times(1)).findProductById(FIRST_ID);
+        Mockito.verify(productIdFilter, Mockito.times(1)).markMissing(FIRST_ID);
+    }
+
+    @Test
+    void should_get_product_locally_and_throw_exception_without_querying_when_recently_found_missing() {
+        Mockito.when(productIdFilter.isMissing(FIRST_ID)).thenReturn(true);
 
-        assertThrows(BadRequestException.class, () -> service.getProduct("1", false));
-        Mockito.verify(repository, Mockito.times(1)).findById("1");
+        assertThrows(BadRequestException.class, () -> service.getProduct(FIRST_ID.toString()));
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    void should_get_product_unknown_to_filter_from_primary_bypassing_cache() {
+        ProductDTO expected = new ProductDTO().id(FIRST_ID.toString());
+        Mockito.when(productIdFilter.mightExist(FIRST_ID)).thenReturn(false);
+        Mockito.when(repository.findProducts(List.of(FIRST_ID))).thenAnswer(invocation -> {
+            assertTrue(ReadYourWritesContext.isPrimaryRequired());
+            return List.of(expected);
+        });
+
+        assertEquals(expected, service.getProduct(FIRST_ID.toString()));
+        Mockito.verify(repository, Mockito.times(0)).findProductById(FIRST_ID);
+        Mockito.verify(productIdFilter, Mockito.times(1)).addAll(List.of(FIRST_ID));
+    }
+
+    @Test
+    void should_get_product_unknown_to_filter_and_throw_exception_when_not_found_on_primary() {
+        Mockito.when(productIdFilter.mightExist(FIRST_ID)).thenReturn(false);
+        Mockito.when(repository.findProducts(List.of(FIRST_ID))).thenReturn(List.of());
+
+        assertThrows(BadRequestException.class, () -> service.getProduct(FIRST_ID.toString()));
+        Mockito.verify(productIdFilter, Mockito.times(1)).markMissing(FIRST_ID);
+    }
+
+    @Test
+    void should_get_product_locally_and_throw_exception_when_id_is_not_valid() {
+        assertThrows(BadRequestException.class, () -> service.getProduct("1"));
+        Mockito.verifyNoInteractions(repository);
     }
 
     @Test
     void should_save_product() {
         NewProductDTO newProductDTO = new NewProductDTO().name("name").quantity(1);
-        ProductEntity productEntity = ProductEntity.builder().name("name").quantity(1).build();
+        ProductEntity productEntity = ProductEntity.builder().id(FIRST_ID).name("name").quantity(1).build();
         ProductDTO productDTO = ProductsMapperUtils.productDtofrom(productEntity);
 
         Mockito.when(repository.save(productEntityArgumentCaptor.capture())).thenReturn(productEntity);
@@ -113,62 +431,267 @@ class ProductServiceImplTest {
         assertEquals(1, actual.getQuantity());
         assertNotNull(productEntityArgumentCaptor.getValue().getId());
         Mockito.verify(repository, Mockito.times(1)).save(productEntityArgumentCaptor.getValue());
+        Mockito.verify(repository, Mockito.times(1)).recordChanges(List.of(FIRST_ID), false);
+        Mockito.verify(repository, Mockito.times(1)).addToStats(1, 1, BigDecimal.ZERO);
+        Mockito.verify(productCache, Mockito.times(1)).putAll(List.of(actual));
+        Mockito.verify(productCache, Mockito.times(1)).bumpCatalogueVersion();
         Mockito.verify(observer, Mockito.times(1)).notifyObserver(productDTO, ActionEnum.CREATE, EventTypeEnum.PROPAGATE);
     }
 
+    @Test
+    void should_save_products_in_jdbc_sized_chunks() {
+        List<NewProductDTO> newProductDTOList = List.of(new NewProductDTO().name("first").quantity(1),
+                new NewProductDTO().name("second").quantity(2),
+                new NewProductDTO().name("third").quantity(3));
+        Mockito.when(repository.saveAll(ArgumentMatchers.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ProductsDTO actual = service.saveProducts(newProductDTOList);
+
+        assertEquals(3, actual.getBundle().size());
+        assertEquals("third", actual.getBundle().get(2).getName());
+        actual.getBundle().forEach(productDTO -> assertNotNull(productDTO.getId()));
+        Mockito.verify(repository, Mockito.times(2)).saveAll(ArgumentMatchers.anyList());
+        Mockito.verify(entityManager, Mockito.times(2)).flush();
+        Mockito.verify(entityManager, Mockito.times(2)).clear();
+        Mockito.verify(productIdFilter, Mockito.times(1)).addAll(actual.getBundle().stream()
+                .map(productDTO -> UUID.fromString(productDTO.getId())).collect(Collectors.toList()));
+        Mockito.verify(observer, Mockito.times(1)).notifyObservers(actual.getBundle(), ActionEnum.CREATE, EventTypeEnum.PROPAGATE);
+    }
+
+    @Test
+    void should_fail_to_save_products_when_batch_is_too_large() {
+        List<NewProductDTO> newProductDTOList = Collections.nCopies(4, new NewProductDTO().name("name").quantity(1));
+
+        assertThrows(BadRequestException.class, () -> service.saveProducts(newProductDTOList));
+        Mockito.verifyNoInteractions(repository);
+        Mockito.verifyNoInteractions(observer);
+    }
+
     @Test
     void should_update_product() {
         UpdateProductDTO updateProductDTO = new UpdateProductDTO().name("name").quantity(1);
-        ProductEntity productEntity = ProductEntity.builder().name("name").quantity(1).build();
-        ProductDTO productDTO = ProductsMapperUtils.productDtofrom(productEntity);
+        ProductDTO productDTO = new ProductDTO().id(FIRST_ID.toString()).name("name").quantity(1);
 
-        Mockito.when(repository.save(productEntityArgumentCaptor.capture())).thenReturn(productEntity);
-        Mockito.when(repository.countById("1")).thenReturn(1);
-        Mockito.doNothing().when(observer).notifyObserver(productDTO, ActionEnum.UPDATE, EventTypeEnum.PROPAGATE);
+        Mockito.when(repository.updateProduct(productEntityArgumentCaptor.capture())).thenReturn(1);
 
-        ProductDTO actual = service.updateProduct(updateProductDTO, "1");
+        ProductDTO actual = service.updateProduct(updateProductDTO, FIRST_ID.toString(), null);
 
-        assertEquals("name", actual.getName());
-        assertEquals(1, actual.getQuantity());
-        assertNotNull(productEntityArgumentCaptor.getValue().getId());
-        Mockito.verify(repository, Mockito.times(1)).save(productEntityArgumentCaptor.getValue());
-        Mockito.verify(repository, Mockito.times(1)).countById("1");
+        assertEquals(productDTO, actual);
+        assertEquals(FIRST_ID, productEntityArgumentCaptor.getValue().getId());
+        Mockito.verify(repository, Mockito.times(0)).countById(ArgumentMatchers.any());
+        Mockito.verify(repository, Mockito.times(0)).save(ArgumentMatchers.any());
+        Mockito.verify(repository, Mockito.times(1)).recordChanges(List.of(FIRST_ID), false);
+        Mockito.verify(productCache, Mockito.times(1)).evictAll(List.of(FIRST_ID));
         Mockito.verify(observer, Mockito.times(1)).notifyObserver(productDTO, ActionEnum.UPDATE, EventTypeEnum.PROPAGATE);
     }
 
+    @Test
+    void should_update_product_and_add_the_difference_to_stats() {
+        UpdateProductDTO updateProductDTO = new UpdateProductDTO().name("name").price(new BigDecimal("5")).quantity(1);
+        Mockito.when(repository.findForUpdate(List.of(FIRST_ID)))
+                .thenReturn(List.of(new ProductDTO().id(FIRST_ID.toString()).price(new BigDecimal("2")).quantity(3)));
+        Mockito.when(repository.updateProduct(ArgumentMatchers.any())).thenReturn(1);
+
+        service.updateProduct(updateProductDTO, FIRST_ID.toString(), null);
+
+        Mockito.verify(repository, Mockito.times(1)).addToStats(0, -2, new BigDecimal("-1"));
+    }
+
+    @Test
+    void should_update_product_on_expected_version() {
+        UpdateProductDTO updateProductDTO = new UpdateProductDTO().name("name").quantity(1);
+
+        Mockito.when(repository.updateProductIfVersionMatches(productEntityArgumentCaptor.capture())).thenReturn(1);
+
+        ProductDTO actual = service.updateProduct(updateProductDTO, FIRST_ID.toString(), 3L);
+
+        assertEquals(4L, actual.getVersion());
+        assertEquals(3L, productEntityArgumentCaptor.getValue().getVersion());
+        Mockito.verify(repository, Mockito.times(0)).countById(ArgumentMatchers.any());
+        Mockito.verify(productCache, Mockito.times(1)).putAll(List.of(actual));
+        Mockito.verify(productCache, Mockito.times(0)).evictAll(ArgumentMatchers.any());
+        Mockito.verify(observer, Mockito.times(1)).notifyObserver(actual, ActionEnum.UPDATE, EventTypeEnum.PROPAGATE);
+    }
+
+    @Test
+    void should_fail_to_update_product_on_stale_version() {
+        UpdateProductDTO updateProductDTO = new UpdateProductDTO().name("name").quantity(1);
+        Mockito.when(repository.updateProductIfVersionMatches(ArgumentMatchers.any())).thenReturn(0);
+        Mockito.when(repository.countById(FIRST_ID)).thenReturn(1);
+
+        assertThrows(PreconditionFailedException.class, () -> service.updateProduct(updateProductDTO, FIRST_ID.toString(), 3L));
+        Mockito.verifyNoInteractions(productCache);
+        Mockito.verify(observer, Mockito.times(0)).notifyObserver(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
     @Test
     void should_fail_to_update_product_not_found() {
         UpdateProductDTO updateProductDTO = new UpdateProductDTO().name("name").quantity(1);
-        Mockito.when(repository.countById("1")).thenReturn(0);
+        Mockito.when(repository.updateProduct(ArgumentMatchers.any())).thenReturn(0);
 
-        assertThrows(BadRequestException.class, () -> service.updateProduct(updateProductDTO, "1"));
-        Mockito.verify(repository, Mockito.times(1)).countById("1");
-        Mockito.verify(repository, Mockito.times(0)).save(ArgumentMatchers.any());
+        assertThrows(BadRequestException.class, () -> service.updateProduct(updateProductDTO, FIRST_ID.toString(), null));
+        Mockito.verify(repository, Mockito.times(0)).countById(FIRST_ID);
         Mockito.verify(observer, Mockito.times(0)).notifyObserver(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
     }
 
+    @Test
+    void should_fail_to_update_product_with_invalid_id() {
+        UpdateProductDTO updateProductDTO = new UpdateProductDTO().name("name").quantity(1);
+
+        assertThrows(BadRequestException.class, () -> service.updateProduct(updateProductDTO, "1", null));
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    void should_update_products_in_batch_and_report_not_found() {
+        List<BatchUpdateProductDTO> batchUpdateProductDTOList = List.of(
+                new BatchUpdateProductDTO().id(FIRST_ID.toString()).name("first").quantity(1),
+                new BatchUpdateProductDTO().id("invalid").name("invalid").quantity(0),
+                new BatchUpdateProductDTO().id(SECOND_ID.toString()).name("second").quantity(2),
+                new BatchUpdateProductDTO().id(THIRD_ID.toString()).name("third").quantity(3));
+        Mockito.when(repository.findForUpdate(Set.of(FIRST_ID, SECOND_ID, THIRD_ID)))
+                .thenReturn(List.of(new ProductDTO().id(FIRST_ID.toString()), new ProductDTO().id(THIRD_ID.toString())));
+        service = new ProductServiceImpl(repository, supplyChainIntegration, observer, entityManager, productCache, productIdFilter, new JdkIdGenerator(), 2, 3, 10, 2, 4);
+
+        BatchResultDTO actual = service.updateProducts(batchUpdateProductDTOList);
+
+        assertEquals(List.of(BatchResultItemDTO.StatusEnum.UPDATED, BatchResultItemDTO.StatusEnum.NOT_FOUND,
+                        BatchResultItemDTO.StatusEnum.NOT_FOUND, BatchResultItemDTO.StatusEnum.UPDATED),
+                actual.getBundle().stream().map(BatchResultItemDTO::getStatus).collect(Collectors.toList()));
+        Mockito.verify(repository, Mockito.times(1)).batchUpdate(List.of(
+                ProductsMapperUtils.productEntityfrom(batchUpdateProductDTOList.get(0), FIRST_ID),
+                ProductsMapperUtils.productEntityfrom(batchUpdateProductDTOList.get(3), THIRD_ID)), 2);
+        Mockito.verify(productCache, Mockito.times(1)).evictAll(List.of(FIRST_ID, THIRD_ID));
+        Mockito.verify(observer, Mockito.times(1)).notifyObservers(List.of(
+                new ProductDTO().id(FIRST_ID.toString()).name("first").quantity(1),
+                new ProductDTO().id(THIRD_ID.toString()).name("third").quantity(3)), ActionEnum.UPDATE, EventTypeEnum.PROPAGATE);
+    }
+
+    @Test
+    void should_update_repeated_product_in_batch_once_with_its_last_values() {
+        List<BatchUpdateProductDTO> batchUpdateProductDTOList = List.of(
+                new BatchUpdateProductDTO().id(FIRST_ID.toString()).name("first").quantity(1),
+                new BatchUpdateProductDTO().id(FIRST_ID.toString()).name("last").quantity(2));
+        Mockito.when(repository.findForUpdate(Set.of(FIRST_ID))).thenReturn(List.of(new ProductDTO().id(FIRST_ID.toString())));
+
+        BatchResultDTO actual = service.updateProducts(batchUpdateProductDTOList);
+
+        assertEquals(List.of(BatchResultItemDTO.StatusEnum.UPDATED, BatchResultItemDTO.StatusEnum.UPDATED),
+                actual.getBundle().stream().map(BatchResultItemDTO::getStatus).collect(Collectors.toList()));
+        Mockito.verify(repository, Mockito.times(1)).batchUpdate(List.of(ProductsMapperUtils.productEntityfrom(batchUpdateProductDTOList.get(1), FIRST_ID)), 2);
+    }
+
+    @Test
+    void should_not_update_products_in_batch_when_none_is_found() {
+        List<BatchUpdateProductDTO> batchUpdateProductDTOList = List.of(new BatchUpdateProductDTO().id(FIRST_ID.toString()).name("first").quantity(1));
+
+        BatchResultDTO actual = service.updateProducts(batchUpdateProductDTOList);
+
+        assertEquals(List.of(BatchResultItemDTO.StatusEnum.NOT_FOUND),
+                actual.getBundle().stream().map(BatchResultItemDTO::getStatus).collect(Collectors.toList()));
+        Mockito.verify(repository, Mockito.never()).batchUpdate(ArgumentMatchers.anyList(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void should_delete_repeated_product_in_batch_once() {
+        Mockito.when(repository.findForUpdate(Set.of(FIRST_ID))).thenReturn(List.of(new ProductDTO().id(FIRST_ID.toString())));
+
+        BatchResultDTO actual = service.deleteProducts(List.of(FIRST_ID.toString(), FIRST_ID.toString()));
+
+        assertEquals(List.of(BatchResultItemDTO.StatusEnum.DELETED, BatchResultItemDTO.StatusEnum.NOT_FOUND),
+                actual.getBundle().stream().map(BatchResultItemDTO::getStatus).collect(Collectors.toList()));
+        Mockito.verify(repository, Mockito.times(1)).batchDelete(Set.of(FIRST_ID), 2);
+        Mockito.verify(repository, Mockito.times(1)).recordChanges(List.of(FIRST_ID), true);
+    }
+
+    @Test
+    void should_fail_to_update_products_when_batch_is_too_large() {
+        List<BatchUpdateProductDTO> batchUpdateProductDTOList = Collections.nCopies(4, new BatchUpdateProductDTO().id(FIRST_ID.toString()).name("name"));
+
+        assertThrows(BadRequestException.class, () -> service.updateProducts(batchUpdateProductDTOList));
+        Mockito.verifyNoInteractions(repository);
+        Mockito.verifyNoInteractions(productCache);
+    }
+
+    @Test
+    void should_delete_products_in_batch_unknown_to_filter() {
+        Mockito.lenient().when(productIdFilter.mightExist(FIRST_ID)).thenReturn(false);
+        Mockito.when(repository.findForUpdate(Set.of(FIRST_ID, SECOND_ID))).thenReturn(List.of(
+                new ProductDTO().id(FIRST_ID.toString()), new ProductDTO().id(SECOND_ID.toString())));
+
+        BatchResultDTO actual = service.deleteProducts(List.of(FIRST_ID.toString(), SECOND_ID.toString()));
+
+        assertEquals(new BatchResultDTO()
+                .addBundleItem(new BatchResultItemDTO().id(FIRST_ID.toString()).status(BatchResultItemDTO.StatusEnum.DELETED))
+                .addBundleItem(new BatchResultItemDTO().id(SECOND_ID.toString()).status(BatchResultItemDTO.StatusEnum.DELETED)), actual);
+        Mockito.verify(repository, Mockito.times(1)).batchDelete(Set.of(FIRST_ID, SECOND_ID), 2);
+    }
+
+    @Test
+    void should_delete_products_in_batch_and_report_not_found() {
+        Mockito.when(repository.findForUpdate(Set.of(FIRST_ID, SECOND_ID))).thenReturn(List.of(new ProductDTO().id(SECOND_ID.toString())));
+
+        BatchResultDTO actual = service.deleteProducts(List.of(FIRST_ID.toString(), "invalid", SECOND_ID.toString()));
+
+        assertEquals(new BatchResultDTO()
+                .addBundleItem(new BatchResultItemDTO().id(FIRST_ID.toString()).status(BatchResultItemDTO.StatusEnum.NOT_FOUND))
+                .addBundleItem(new BatchResultItemDTO().id("invalid").status(BatchResultItemDTO.StatusEnum.NOT_FOUND))
+                .addBundleItem(new BatchResultItemDTO().id(SECOND_ID.toString()).status(BatchResultItemDTO.StatusEnum.DELETED)), actual);
+        Mockito.verify(repository, Mockito.times(1)).batchDelete(Set.of(SECOND_ID), 2);
+        Mockito.verify(productCache, Mockito.times(1)).evictAll(List.of(SECOND_ID));
+        Mockito.verify(productIdFilter, Mockito.times(1)).markMissing(SECOND_ID);
+        Mockito.verify(repository, Mockito.times(1)).recordChanges(List.of(SECOND_ID), true);
+        Mockito.verify(observer, Mockito.times(1)).notifyObservers(List.of(new ProductDTO().id(SECOND_ID.toString())), ActionEnum.DELETE, EventTypeEnum.PROPAGATE);
+    }
+
     @Test
     void should_delete_product() {
-        Mockito.when(repository.countById("1")).thenReturn(1);
-        Mockito.doNothing().when(repository).deleteById("1");
-        Mockito.doNothing().when(observer).notifyObserver(new ProductDTO().id("1"), ActionEnum.DELETE, EventTypeEnum.PROPAGATE);
+        Mockito.when(repository.deleteProduct(FIRST_ID)).thenReturn(1);
+
+        service.deleteProduct(FIRST_ID.toString(), null);
 
-        service.deleteProduct("1");
+        Mockito.verify(repository, Mockito.times(1)).deleteProduct(FIRST_ID);
+        Mockito.verify(repository, Mockito.times(0)).countById(FIRST_ID);
+        Mockito.verify(repository, Mockito.times(1)).recordChanges(List.of(FIRST_ID), true);
+        Mockito.verify(productCache, Mockito.times(1)).evictAll(List.of(FIRST_ID));
+        Mockito.verify(observer, Mockito.times(1)).notifyObserver(new ProductDTO().id(FIRST_ID.toString()), ActionEnum.DELETE, EventTypeEnum.PROPAGATE);
+    }
+
+    @Test
+    void should_delete_product_and_subtract_it_from_stats() {
+        Mockito.when(repository.findForUpdate(List.of(FIRST_ID)))
+                .thenReturn(List.of(new ProductDTO().id(FIRST_ID.toString()).price(new BigDecimal("2.5")).quantity(2)));
+        Mockito.when(repository.deleteProduct(FIRST_ID)).thenReturn(1);
+
+        service.deleteProduct(FIRST_ID.toString(), null);
+
+        Mockito.verify(repository, Mockito.times(1)).addToStats(-1, -2, new BigDecimal("-5.0"));
+    }
 
-        Mockito.verify(repository, Mockito.times(1)).deleteById("1");
-        Mockito.verify(repository, Mockito.times(1)).countById("1");
-        Mockito.verify(observer, Mockito.times(1)).notifyObserver(new ProductDTO().id("1"), ActionEnum.DELETE, EventTypeEnum.PROPAGATE);
+    @Test
+    void should_fail_to_delete_product_on_stale_version() {
+        Mockito.when(repository.deleteProductIfVersionMatches(FIRST_ID, 3L)).thenReturn(0);
+        Mockito.when(repository.countById(FIRST_ID)).thenReturn(1);
+
+        assertThrows(PreconditionFailedException.class, () -> service.deleteProduct(FIRST_ID.toString(), 3L));
+        Mockito.verify(observer, Mockito.times(0)).notifyObserver(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
     }
 
     @Test
     void should_fail_to_delete_product_not_found() {
-        Mockito.when(repository.countById("1")).thenReturn(0);
+        Mockito.when(repository.deleteProductIfVersionMatches(FIRST_ID, 3L)).thenReturn(0);
+        Mockito.when(repository.countById(FIRST_ID)).thenReturn(0);
 
-        assertThrows(BadRequestException.class, () -> service.deleteProduct("1"));
+        assertThrows(BadRequestException.class, () -> service.deleteProduct(FIRST_ID.toString(), 3L));
 
-        Mockito.verify(repository, Mockito.times(1)).countById("1");
-        Mockito.verify(repository, Mockito.times(0)).save(ArgumentMatchers.any());
+        Mockito.verify(repository, Mockito.times(1)).countById(FIRST_ID);
         Mockito.verify(observer, Mockito.times(0)).notifyObserver(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
     }
 
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    private void loadPagesWithoutCache() {
+        Mockito.when(productCache.getPage(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> ((Supplier<ProductsDTO>) invocation.getArgument(1)).get());
+    }
+}
@@ -0,0 +1,34 @@
+package com.waes.test.util;
+
+import com.waes.test.exception.BadRequestException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+class CursorUtilsTest {
+
+    @Test
+    void should_encode_and_decode_cursor() {
+        UUID lastKey = UUID.fromString("d184e0c9-c80c-4918-a8c1-c4e24c6b32cb");
+        String cursor = CursorUtils.encode(lastKey);
+
+        Assertions.assertEquals(22, cursor.length());
+        Assertions.assertEquals(lastKey, CursorUtils.decode(cursor));
+    }
+
+    @Test
+    void should_decode_null_cursor_as_first_page() {
+        Assertions.assertNull(CursorUtils.decode(null));
+    }
+
+    @Test
+    void should_fail_to_decode_invalid_cursor() {
+        Assertions.assertThrows(BadRequestException.class, () -> CursorUtils.decode("not a cursor!"));
+    }
+
+    @Test
+    void should_fail_to_decode_cursor_of_other_key_size() {
+        Assertions.assertThrows(BadRequestException.class, () -> CursorUtils.decode("MTIz"));
+    }
+}
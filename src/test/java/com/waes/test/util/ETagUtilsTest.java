@@ -0,0 +1,29 @@
+package com.waes.test.util;
+
+import com.waes.test.exception.BadRequestException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ETagUtilsTest {
+
+    @Test
+    void should_build_etag_and_read_version_back() {
+        Assertions.assertEquals(3L, ETagUtils.versionFrom(ETagUtils.from(3L)));
+    }
+
+    @Test
+    void should_read_version_from_weak_etag() {
+        Assertions.assertEquals(3L, ETagUtils.versionFrom("W/\"3\""));
+    }
+
+    @Test
+    void should_read_no_version_from_missing_or_any_etag() {
+        Assertions.assertNull(ETagUtils.versionFrom(null));
+        Assertions.assertNull(ETagUtils.versionFrom("*"));
+    }
+
+    @Test
+    void should_fail_to_read_version_from_invalid_etag() {
+        Assertions.assertThrows(BadRequestException.class, () -> ETagUtils.versionFrom("\"abc\""));
+    }
+}
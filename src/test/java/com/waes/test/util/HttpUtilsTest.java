@@ -31,9 +31,11 @@ import org.mockito.stubbing.Answer;
 import java.io.IOException;
 import java.net.URL;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Supplier;
 
-import static java.time.temporal.ChronoUnit.SECONDS;
+import static java.time.temporal.ChronoUnit.MILLIS;
 
 @ExtendWith(MockitoExtension.class)
 class HttpUtilsTest {
@@ -71,7 +73,8 @@ class HttpUtilsTest {
 
         RetryConfig retryConfig = RetryConfig.custom()
                 .maxAttempts(3)
-                .waitDuration(Duration.of(0, SECONDS))
+                // Asynchronous retries are not scheduled without a wait.
+                .waitDuration(Duration.of(10, MILLIS))
                 .ignoreExceptions(BadRequestException.class)
                 .build();
         RetryRegistry retryRegistry = RetryRegistry.of(retryConfig);
@@ -226,4 +229,52 @@ class HttpUtilsTest {
         Assertions.assertEquals(3, mockWebServer.getRequestCount());
     }
 
-}
\ No newline at end of file
+    @Test
+    @SneakyThrows
+    void should_execute_get_request_asynchronously() {
+        ProductDTO expected = new ProductDTO();
+
+        Mockito.when(mapper.readValue("{}", ProductDTO.class)).thenReturn(expected);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        ProductDTO actual = httpUtils.executeCallAsync(() -> httpUtils.executeGetRequestAsync(this.url, ProductDTO.class)).get();
+
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    @SneakyThrows
+    void should_execute_get_request_asynchronously_and_return_404_error_without_retrying() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404).setBody("{}"));
+
+        CompletableFuture<ProductDTO> actual = httpUtils.executeCallAsync(() -> httpUtils.executeGetRequestAsync(this.url, ProductDTO.class));
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, actual::get);
+        Assertions.assertTrue(exception.getCause() instanceof BadRequestException);
+        Assertions.assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    @SneakyThrows
+    void should_execute_get_request_asynchronously_and_return_500_error_and_retry_3_times() {
+        Stream.range(0, 3).forEach((num) -> mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("{}")));
+
+        CompletableFuture<ProductDTO> actual = httpUtils.executeCallAsync(() -> httpUtils.executeGetRequestAsync(this.url, ProductDTO.class));
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, actual::get);
+        Assertions.assertTrue(exception.getCause() instanceof InternalServerErrorException);
+        Assertions.assertEquals(3, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    @SneakyThrows
+    void should_execute_get_request_asynchronously_and_fail_without_calling_when_cb_is_open() {
+        circuitBreaker.transitionToOpenState();
+
+        CompletableFuture<ProductDTO> actual = httpUtils.executeCallAsync(() -> httpUtils.executeGetRequestAsync(this.url, ProductDTO.class));
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, actual::get);
+        Assertions.assertTrue(exception.getCause() instanceof CallNotPermittedException);
+        Assertions.assertEquals(0, mockWebServer.getRequestCount());
+    }
+}
@@ -0,0 +1,80 @@
+package com.waes.test.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class OkHttpClientMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MockWebServer mockWebServer;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        client = new OkHttpClient();
+        client.dispatcher().setMaxRequestsPerHost(1);
+        new OkHttpClientMetrics(client).bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void should_report_running_and_queued_calls() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        mockWebServer.enqueue(new MockResponse().setBody("{}").setBodyDelay(500, TimeUnit.MILLISECONDS));
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        enqueue(done);
+        enqueue(done);
+
+        Assertions.assertEquals(1.0, registry.get("okhttp.dispatcher.calls").tag("state", "running").gauge().value());
+        Assertions.assertEquals(1.0, registry.get("okhttp.dispatcher.calls").tag("state", "queued").gauge().value());
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void should_report_idle_connection_kept_alive_after_a_call() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        try (Response response = client.newCall(new Request.Builder().url(mockWebServer.url("/")).build()).execute()) {
+            Assertions.assertEquals("{}", response.body().string());
+        }
+
+        Assertions.assertEquals(1.0, registry.get("okhttp.pool.connections").tag("state", "idle").gauge().value());
+        Assertions.assertEquals(0.0, registry.get("okhttp.pool.connections").tag("state", "active").gauge().value());
+    }
+
+    private void enqueue(CountDownLatch done) {
+        client.newCall(new Request.Builder().url(mockWebServer.url("/")).build()).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                done.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                done.countDown();
+            }
+        });
+    }
+}
@@ -8,11 +8,14 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 class ProductsMapperUtilsTest {
 
+    private static final UUID ID = UUID.fromString("0184e0c9-c80c-7918-a8c1-c4e24c6b32cb");
+
     private ProductDTO productDTO = new ProductDTO()
-            .id("1")
+            .id(ID.toString())
             .name("name")
             .price(new BigDecimal("12.01"))
             .quantity(1);
@@ -28,7 +31,7 @@ class ProductsMapperUtilsTest {
             .quantity(1);
 
     private ProductEntity productEntity = ProductEntity.builder()
-            .id("1")
+            .id(ID)
             .name("name")
             .price(new BigDecimal("12.01"))
             .quantity(1)
@@ -36,7 +39,7 @@ class ProductsMapperUtilsTest {
 
     @Test
     void should_test_productDtofrom_UpdateProductDTO() {
-        Assertions.assertEquals(productDTO, ProductsMapperUtils.productDtofrom(updateProductDTO, "1"));
+        Assertions.assertEquals(productDTO, ProductsMapperUtils.productDtofrom(updateProductDTO, ID.toString()));
     }
 
     @Test
@@ -46,15 +49,15 @@ class ProductsMapperUtilsTest {
 
     @Test
     void should_test_productEntityfrom_UpdateProductDTO() {
-        Assertions.assertEquals(productEntity, ProductsMapperUtils.productEntityfrom(updateProductDTO, "1"));
+        Assertions.assertEquals(productEntity, ProductsMapperUtils.productEntityfrom(updateProductDTO, ID, null));
     }
 
     @Test
     void should_test_productEntityfrom_NewProductDTO() {
-        ProductEntity expected = ProductsMapperUtils.productEntityfrom(newProductDTO);
+        ProductEntity expected = ProductsMapperUtils.productEntityfrom(newProductDTO, ID);
         Assertions.assertEquals(expected.getName(), newProductDTO.getName());
         Assertions.assertEquals(expected.getPrice(), newProductDTO.getPrice());
         Assertions.assertEquals(expected.getQuantity(), newProductDTO.getQuantity());
-        Assertions.assertNotNull(expected.getId());
+        Assertions.assertEquals(ID, expected.getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.waes.test.util;
+
+import com.waes.test.exception.BadRequestException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void should_share_a_single_load_between_concurrent_callers_of_the_same_key() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", () -> {
+                loading.countDown();
+                await(release);
+                return "value-" + loads.incrementAndGet();
+            }), executorService);
+            Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> singleFlight.execute("key",
+                    () -> "value-" + loads.incrementAndGet()), executorService);
+            // The second caller is given time to join the load in flight before it is released.
+            Thread.sleep(200);
+            release.countDown();
+
+            Assertions.assertEquals("value-1", first.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("value-1", second.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, loads.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_load_again_once_the_previous_load_completed() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("key", () -> "value-" + loads.incrementAndGet());
+        String actual = singleFlight.execute("key", () -> "value-" + loads.incrementAndGet());
+
+        Assertions.assertEquals("value-2", actual);
+    }
+
+    @Test
+    void should_rethrow_the_exception_of_the_load_and_load_again_next_time() {
+        Assertions.assertThrows(BadRequestException.class, () -> singleFlight.execute("key", () -> {
+            throw new BadRequestException("not found");
+        }));
+
+        Assertions.assertEquals("value", singleFlight.execute("key", () -> "value"));
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.waes.test.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+class UuidUtilsTest {
+
+    @Test
+    void should_generate_time_ordered_uuid_version_7() throws InterruptedException {
+        UUID first = UuidUtils.timeOrderedUuid();
+        Thread.sleep(2);
+        UUID second = UuidUtils.timeOrderedUuid();
+
+        Assertions.assertEquals(7, first.version());
+        Assertions.assertEquals(2, first.variant());
+        Assertions.assertTrue(Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits()) < 0);
+    }
+
+    @Test
+    void should_convert_uuid_to_bytes_and_back() {
+        UUID uuid = UUID.fromString("d184e0c9-c80c-4918-a8c1-c4e24c6b32cb");
+
+        byte[] bytes = UuidUtils.toBytes(uuid);
+
+        Assertions.assertEquals(16, bytes.length);
+        Assertions.assertEquals((byte) 0xd1, bytes[0]);
+        Assertions.assertEquals(uuid, UuidUtils.fromBytes(bytes));
+    }
+
+    @Test
+    void should_parse_only_canonical_uuid() {
+        Assertions.assertEquals(Optional.of(UUID.fromString("d184e0c9-c80c-4918-a8c1-c4e24c6b32cb")),
+                UuidUtils.parse("d184e0c9-c80c-4918-a8c1-c4e24c6b32cb"));
+        Assertions.assertEquals(Optional.empty(), UuidUtils.parse("1"));
+        Assertions.assertEquals(Optional.empty(), UuidUtils.parse("1-1-1-1-1"));
+        Assertions.assertEquals(Optional.empty(), UuidUtils.parse(null));
+    }
+}